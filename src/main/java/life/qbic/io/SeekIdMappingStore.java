@@ -0,0 +1,186 @@
+package life.qbic.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import life.qbic.model.download.SEEKConnector.SeekStructurePostRegistrationInformation;
+
+/**
+ * File-backed mapping of openBIS experiment permIds to the endpoints of the SEEK assays created
+ * from them. Used to find existing assays without searching SEEK. The file is tab-separated, one
+ * mapping per line:
+ * EXPERIMENT, openBIS permId, SEEK endpoint
+ * Lines of other kinds, e.g. datasets mapped by earlier versions, are not used and are dropped when
+ * the file is saved.
+ * Several runs may use the same file: changes are merged with the current file content when
+ * saving, while a lock file next to the mapping file is held.
+ */
+public class SeekIdMappingStore {
+
+  private static final String EXPERIMENT = "EXPERIMENT";
+
+  private static class Change {
+
+    private final String permID;
+    private final String endpoint;
+    private final boolean added;
+
+    private Change(String permID, String endpoint, boolean added) {
+      this.permID = permID;
+      this.endpoint = endpoint;
+      this.added = added;
+    }
+  }
+
+  private final Path file;
+  private Map<String, String> endpoints = new LinkedHashMap<>();
+  private final List<Change> changes = new ArrayList<>();
+
+  private SeekIdMappingStore(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Reads the mappings from the provided file. A missing file results in an empty store, which
+   * creates the file when saved.
+   */
+  public static SeekIdMappingStore load(Path file) {
+    SeekIdMappingStore store = new SeekIdMappingStore(file);
+    store.endpoints = read(file);
+    return store;
+  }
+
+  private static Map<String, String> read(Path file) {
+    Map<String, String> mappings = new LinkedHashMap<>();
+    if (!Files.exists(file)) {
+      return mappings;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank() || line.startsWith("#")) {
+          continue;
+        }
+        String[] columns = line.split("\t");
+        if (columns.length != 3) {
+          throw new RuntimeException("Invalid line in SEEK id mapping file " + file + ": " + line);
+        }
+        if (columns[0].equals(EXPERIMENT)) {
+          mappings.put(columns[1], columns[2]);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("SEEK id mapping file " + file + " could not be read.", e);
+    }
+    return mappings;
+  }
+
+  /**
+   * @return the SEEK endpoint of the assay created from the experiment with the provided permId
+   */
+  public Optional<String> getEndpoint(String experimentPermID) {
+    return Optional.ofNullable(endpoints.get(experimentPermID));
+  }
+
+  /**
+   * Adds a mapping. An existing mapping of the experiment is replaced.
+   */
+  public void put(String experimentPermID, String endpoint) {
+    Change change = new Change(experimentPermID, endpoint, true);
+    if (apply(endpoints, change)) {
+      changes.add(change);
+    }
+  }
+
+  /**
+   * Removes a mapping, e.g. because the SEEK assay does not exist anymore.
+   */
+  public void remove(String experimentPermID, String endpoint) {
+    Change change = new Change(experimentPermID, endpoint, false);
+    if (apply(endpoints, change)) {
+      changes.add(change);
+    }
+  }
+
+  /**
+   * @return true, if the mappings were changed
+   */
+  private static boolean apply(Map<String, String> mappings, Change change) {
+    if (change.added) {
+      return !change.endpoint.equals(mappings.put(change.permID, change.endpoint));
+    }
+    return mappings.remove(change.permID, change.endpoint);
+  }
+
+  /**
+   * Adds the assay created or found during a transfer to SEEK.
+   * @param experimentPermID permId of the openBIS experiment the transferred assay belongs to
+   */
+  public void addAll(String experimentPermID,
+      SeekStructurePostRegistrationInformation postRegInfo) {
+    postRegInfo.getExperimentIDWithEndpoint().ifPresent(experiment ->
+        put(experimentPermID, experiment.getRight()));
+  }
+
+  /**
+   * Writes the changes made since the file was read or last saved. While a lock file next to the
+   * mapping file is held, the current file content is read again, the changes are applied to it
+   * and the result is written to a temporary file, which is then moved in place. Concurrent runs
+   * therefore keep each other's mappings and an interrupted run does not corrupt the file.
+   */
+  public void save() {
+    if (changes.isEmpty()) {
+      return;
+    }
+    Path absolute = file.toAbsolutePath();
+    Path lockFile = absolute.resolveSibling(absolute.getFileName() + ".lock");
+    try {
+      Files.createDirectories(absolute.getParent());
+      try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE); FileLock lock = lockChannel.lock()) {
+        Map<String, String> merged = read(absolute);
+        for (Change change : changes) {
+          apply(merged, change);
+        }
+        write(merged, absolute);
+        endpoints = merged;
+        changes.clear();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("SEEK id mapping file " + file + " could not be written.", e);
+    }
+  }
+
+  private static void write(Map<String, String> mappings, Path file) throws IOException {
+    Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (Entry<String, String> mapping : mappings.entrySet()) {
+          writer.write(EXPERIMENT + "\t" + mapping.getKey() + "\t" + mapping.getValue());
+          writer.newLine();
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  public Path getFile() {
+    return file;
+  }
+}
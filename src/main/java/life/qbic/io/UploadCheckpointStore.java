@@ -0,0 +1,161 @@
+package life.qbic.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import life.qbic.model.download.SEEKConnector.AssetToUpload;
+
+/**
+ * File-backed checkpoints of chunked uploads to SEEK, so an upload that was interrupted, even by
+ * the end of a run, can be resumed after the last chunk stored in SEEK. The file is tab-separated,
+ * one unfinished upload per line:
+ * blob endpoint, openBIS dataset code, file path, file size, bytes stored in SEEK
+ * Each change is written immediately. Like the id mapping, the file is updated while a lock file
+ * next to it is held, merging the change into the current file content, so several runs can use
+ * the same file.
+ */
+public class UploadCheckpointStore {
+
+  private static class Checkpoint {
+
+    private final AssetToUpload asset;
+    private final long bytesStored;
+
+    private Checkpoint(AssetToUpload asset, long bytesStored) {
+      this.asset = asset;
+      this.bytesStored = bytesStored;
+    }
+  }
+
+  private final Path file;
+  private Map<String, Checkpoint> checkpoints;
+
+  private UploadCheckpointStore(Path file, Map<String, Checkpoint> checkpoints) {
+    this.file = file;
+    this.checkpoints = checkpoints;
+  }
+
+  /**
+   * Reads the checkpoints from the provided file. A missing file results in an empty store, which
+   * creates the file when a checkpoint is added.
+   */
+  public static UploadCheckpointStore load(Path file) {
+    return new UploadCheckpointStore(file, read(file));
+  }
+
+  private static Map<String, Checkpoint> read(Path file) {
+    Map<String, Checkpoint> checkpoints = new LinkedHashMap<>();
+    if (!Files.exists(file)) {
+      return checkpoints;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank() || line.startsWith("#")) {
+          continue;
+        }
+        String[] columns = line.split("\t");
+        if (columns.length != 5) {
+          throw new RuntimeException("Invalid line in upload checkpoint file " + file + ": "
+              + line);
+        }
+        AssetToUpload asset = new AssetToUpload(columns[0], columns[2], columns[1],
+            Long.parseLong(columns[3]));
+        checkpoints.put(columns[0], new Checkpoint(asset, Long.parseLong(columns[4])));
+      }
+    } catch (IOException | NumberFormatException e) {
+      throw new RuntimeException("Upload checkpoint file " + file + " could not be read.", e);
+    }
+    return checkpoints;
+  }
+
+  /**
+   * @return the number of bytes of the asset's file already stored in SEEK, if its upload was
+   * started before and the file size did not change
+   */
+  public synchronized OptionalLong getBytesStored(AssetToUpload asset) {
+    Checkpoint checkpoint = checkpoints.get(asset.getBlobEndpoint());
+    if (checkpoint == null || checkpoint.asset.getFileSizeInBytes() != asset.getFileSizeInBytes()) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(checkpoint.bytesStored);
+  }
+
+  /**
+   * @return the assets whose upload was started, but not finished
+   */
+  public synchronized List<AssetToUpload> getUnfinishedUploads() {
+    List<AssetToUpload> assets = new ArrayList<>();
+    checkpoints.values().forEach(checkpoint -> assets.add(checkpoint.asset));
+    return assets;
+  }
+
+  /**
+   * Stores the number of bytes of the asset's file that are stored in SEEK.
+   */
+  public synchronized void update(AssetToUpload asset, long bytesStored) {
+    change(current -> current.put(asset.getBlobEndpoint(), new Checkpoint(asset, bytesStored)));
+  }
+
+  /**
+   * Removes the checkpoint of a finished upload.
+   */
+  public synchronized void remove(AssetToUpload asset) {
+    if (checkpoints.containsKey(asset.getBlobEndpoint())) {
+      change(current -> current.remove(asset.getBlobEndpoint()));
+    }
+  }
+
+  private void change(Consumer<Map<String, Checkpoint>> change) {
+    Path absolute = file.toAbsolutePath();
+    Path lockFile = absolute.resolveSibling(absolute.getFileName() + ".lock");
+    try {
+      Files.createDirectories(absolute.getParent());
+      try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE); FileLock lock = lockChannel.lock()) {
+        Map<String, Checkpoint> merged = read(absolute);
+        change.accept(merged);
+        write(merged, absolute);
+        checkpoints = merged;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Upload checkpoint file " + file + " could not be written.", e);
+    }
+  }
+
+  private static void write(Map<String, Checkpoint> checkpoints, Path file) throws IOException {
+    Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (Checkpoint checkpoint : checkpoints.values()) {
+          AssetToUpload asset = checkpoint.asset;
+          writer.write(String.join("\t", asset.getBlobEndpoint(), asset.getDataSetCode(),
+              asset.getFilePath(), Long.toString(asset.getFileSizeInBytes()),
+              Long.toString(checkpoint.bytesStored)));
+          writer.newLine();
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  public Path getFile() {
+    return file;
+  }
+}
@@ -9,11 +9,10 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -28,6 +27,7 @@ import life.qbic.model.isa.ISAAssay;
 import life.qbic.model.isa.ISASample;
 import life.qbic.model.isa.NodeType;
 import life.qbic.model.isa.SeekStructure;
+import org.apache.commons.lang3.tuple.Pair;
 import org.xml.sax.SAXException;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
@@ -78,26 +78,18 @@ public class CreateROCrate implements Runnable {
 
     this.openbis = new OpenbisConnector(authentication);
 
-    System.out.println("Searching for specified object in openBIS...");
+    System.out.println(
+        "Searching for specified object and collecting information from openBIS...");
 
-    boolean isExperiment = experimentExists(objectID);
-    NodeType nodeType = NodeType.ASSAY;
-
-    if (!isExperiment && sampleExists(objectID)) {
-      nodeType = NodeType.SAMPLE;
-    }
-
-    if (!isExperiment && !nodeType.equals(NodeType.SAMPLE) && datasetsExist(
-        Arrays.asList(objectID))) {
-      nodeType = NodeType.ASSET;
-    }
-
-    if (nodeType.equals(NodeType.ASSAY) && !isExperiment) {
+    Optional<Pair<NodeType, OpenbisExperimentWithDescendants>> resolved =
+        openbis.resolveWithDescendants(objectID);
+    if (resolved.isEmpty()) {
       System.out.printf(
           "%s could not be found in openBIS. Make sure you either specify an experiment, sample or dataset%n",
           objectID);
       return;
     }
+    NodeType nodeType = resolved.get().getLeft();
     System.out.println("Search successful.");
 
     try {
@@ -105,21 +97,7 @@ public class CreateROCrate implements Runnable {
     } catch (IOException | ParserConfigurationException | SAXException e) {
       throw new RuntimeException(e);
     }
-    OpenbisExperimentWithDescendants structure;
-    System.out.println("Collecting information from openBIS...");
-    switch (nodeType) {
-      case ASSAY:
-        structure = openbis.getExperimentWithDescendants(objectID);
-        break;
-      case SAMPLE:
-        structure = openbis.getExperimentAndDataFromSample(objectID);
-        break;
-      case ASSET:
-        structure = openbis.getExperimentStructureFromDataset(objectID);
-        break;
-      default:
-        throw new RuntimeException("Handling of node type " + nodeType + " is not supported.");
-    }
+    OpenbisExperimentWithDescendants structure = resolved.get().getRight();
     Set<String> blacklist = parseBlackList(blacklistFile);
     System.out.println("Translating openBIS structure to ISA structure...");
     try {
@@ -132,7 +110,7 @@ public class CreateROCrate implements Runnable {
       new File(assayPath).mkdirs();
 
       System.out.printf("Writing assay json for %s.%n", experimentID);
-      writeFile(Path.of(assayPath, assayFileName)+".json", assay.toJson());
+      writeFile(Path.of(assayPath, assayFileName)+".json", assay.toPrettyJson());
 
       for(ISASample sample : nodeWithChildren.getSamplesWithOpenBISReference().keySet()) {
         String sampleID = nodeWithChildren.getSamplesWithOpenBISReference().get(sample);
@@ -141,7 +119,7 @@ public class CreateROCrate implements Runnable {
         new File(samplePath).mkdirs();
 
         System.out.printf("Writing sample json for %s.%n", sampleID);
-        writeFile(Path.of(samplePath, sampleFileName)+".json", sample.toJson());
+        writeFile(Path.of(samplePath, sampleFileName)+".json", sample.toPrettyJson());
       }
 
       Map<String, String> datasetIDToDataFolder = new HashMap<>();
@@ -164,7 +142,7 @@ public class CreateROCrate implements Runnable {
         DataSetFile file = nodeWithChildren.getISAFileToDatasetFiles().get(asset);
         String datasetID = file.getDataSetPermId().getPermId();
         String dataFolderPath = datasetIDToDataFolder.get(datasetID);
-        String assetJson = asset.toJson();
+        String assetJson = asset.toPrettyJson();
         String assetWithoutOriginFolder = asset.getFileName().replace("original","");
         File assetFolder = Path.of(dataFolderPath, assetWithoutOriginFolder).getParent().toFile();
         assetFolder.mkdirs();
@@ -221,17 +199,4 @@ public class CreateROCrate implements Runnable {
       throw new RuntimeException(blacklistFile+" could not be found or read.");
     }
   }
-
-  private boolean sampleExists(String objectID) {
-    return openbis.sampleExists(objectID);
-  }
-
-  private boolean datasetsExist(List<String> datasetCodes) {
-    return openbis.findDataSets(datasetCodes).size() == datasetCodes.size();
-  }
-
-  private boolean experimentExists(String experimentID) {
-    return openbis.experimentExists(experimentID);
-  }
-
 }
@@ -27,6 +27,7 @@ import picocli.CommandLine.Option;
  * often (via samples existing in the queried openBIS instance), creating a sample type hierarchy.
  * The --space command can be used to only show the sample-types used in a specific openBIS space.
  * An output file for the resulting hierarchy can be specified using the --out command.
+ * The number of spaces queried at the same time can be set using the --workers command.
  */
 @Command(name = "sample-types",
     description = "lists sample types with children sample types and how often they are found in "
@@ -39,6 +40,9 @@ public class SampleHierarchyCommand implements Runnable {
   @Option(arity = "1", paramLabel = "<output file path>", description = "optional output path",
       names = {"-o", "--out"})
   private String outpath;
+  @Option(arity = "1", paramLabel = "<n>", description = "number of spaces queried at the same "
+      + "time. Default: 4", names = {"-w", "--workers"})
+  private int workers = 4;
   @Mixin
   OpenbisAuthenticationOptions auth = new OpenbisAuthenticationOptions();
 
@@ -56,7 +60,8 @@ public class SampleHierarchyCommand implements Runnable {
         OpenBIS authentication = App.loginToOpenBIS(auth.getOpenbisPassword(),
             auth.getOpenbisUser(), auth.getOpenbisAS());
         OpenbisConnector openbis = new OpenbisConnector(authentication);
-        Map<SampleTypeConnection, Integer> hierarchy = openbis.queryFullSampleHierarchy(spaces);
+        Map<SampleTypeConnection, Integer> hierarchy = openbis.queryFullSampleHierarchy(spaces,
+            workers);
 
         hierarchy.entrySet().stream()
             .sorted(Entry.comparingByValue())
@@ -1,9 +1,6 @@
 package life.qbic.io.commandline;
 
 import ch.ethz.sis.openbis.generic.OpenBIS;
-import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.DataSet;
-import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.Experiment;
-import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.Sample;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -13,6 +10,7 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import life.qbic.App;
@@ -31,6 +29,7 @@ import picocli.CommandLine.Option;
  * An output file for the resulting list can be specified using the --out command.
  * By default, openBIS settings objects and material spaces are ignored. This can be overwritten
  * using --show-settings.
+ * Using --count-only, only the number of objects per type and space is requested from openBIS.
  */
 @Command(name = "statistics",
     description = "lists the number of collections, sample objects and attached datasets (by type)"
@@ -47,6 +46,10 @@ public class SpaceStatisticsCommand implements Runnable {
       + "Ignored if a specific space is selected.",
       names = {"--show-settings"})
   private boolean allSpaces;
+  @Option(arity = "0", description = "only requests the number of objects per type and space from "
+      + "openBIS, instead of fetching the objects themselves. Faster for large spaces with few "
+      + "types.", names = {"--count-only"})
+  private boolean countOnly;
   @Mixin
   OpenbisAuthenticationOptions auth = new OpenbisAuthenticationOptions();
 
@@ -72,54 +75,26 @@ public class SpaceStatisticsCommand implements Runnable {
         }
       }
 
-      Map<String, Map<String, List<Experiment>>> experiments = openbis.getExperimentsByTypeAndSpace(spaces);
-      Map<String, Map<String, List<Sample>>> samples = openbis.getSamplesByTypeAndSpace(spaces);
-      Map<String, Map<String, List<DataSet>>> datasets = openbis.getDatasetsByTypeAndSpace(spaces);
+      Map<String, Map<String, Integer>> experiments;
+      Map<String, Map<String, Integer>> samples;
+      Map<String, Map<String, Integer>> datasets;
+      if (countOnly) {
+        experiments = openbis.countExperimentTotalsByTypeAndSpace(spaces);
+        samples = openbis.countSampleTotalsByTypeAndSpace(spaces);
+        datasets = openbis.countDatasetTotalsByTypeAndSpace(spaces);
+      } else {
+        experiments = openbis.countExperimentsByTypeAndSpace(spaces);
+        samples = openbis.countSamplesByTypeAndSpace(spaces);
+        datasets = openbis.countDatasetsByTypeAndSpace(spaces);
+      }
 
       for(String space : spaces) {
         summary.add("-----");
         summary.add("Summary for "+space);
         summary.add("-----");
-        int numExps = 0;
-        if (experiments.containsKey(space)) {
-          numExps = experiments.get(space).values().stream().mapToInt(List::size).sum();
-        }
-        summary.add("Experiments ("+numExps+"):");
-        summary.add("");
-        if(!experiments.isEmpty()) {
-          Map<String, List<Experiment>> exps = experiments.get(space);
-          for (String type : exps.keySet()) {
-            summary.add(type + ": " + exps.get(type).size());
-          }
-        }
-        summary.add("");
-        int numSamples = 0;
-        if (samples.containsKey(space)) {
-          numSamples = samples.get(space).values().stream().mapToInt(List::size).sum();
-        }
-        summary.add("Samples ("+numSamples+"):");
-        summary.add("");
-        if(!samples.isEmpty()) {
-          Map<String, List<Sample>> samps = samples.get(space);
-          for (String type : samps.keySet()) {
-            summary.add(type + ": " + samps.get(type).size());
-          }
-        }
-        summary.add("");
-        int numData = 0;
-        if (datasets.containsKey(space)) {
-          numData = datasets.get(space).values().stream().mapToInt(List::size).sum();
-        }
-        summary.add("Attached datasets (" + numData + "):");
-        summary.add("");
-        if (datasets.get(space) != null) {
-          Map<String, List<DataSet>> dsets = datasets.get(space);
-          for (String dataType : dsets.keySet()) {
-            summary.add(dataType + ": " + dsets.get(dataType).size());
-          }
-        }
-
-        summary.add("");
+        addTypeCounts(summary, "Experiments", experiments.getOrDefault(space, new HashMap<>()));
+        addTypeCounts(summary, "Samples", samples.getOrDefault(space, new HashMap<>()));
+        addTypeCounts(summary, "Attached datasets", datasets.getOrDefault(space, new HashMap<>()));
       }
 
       for(String line : summary) {
@@ -139,6 +114,16 @@ public class SpaceStatisticsCommand implements Runnable {
       }
     }
 
+    private void addTypeCounts(List<String> summary, String title, Map<String, Integer> counts) {
+      int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+      summary.add(title + " (" + total + "):");
+      summary.add("");
+      for (String type : counts.keySet()) {
+        summary.add(type + ": " + counts.get(type));
+      }
+      summary.add("");
+    }
+
     private String getTimeStamp() {
       final String PATTERN_FORMAT = "YYYY-MM-dd_HHmmss";
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern(PATTERN_FORMAT);
@@ -3,12 +3,13 @@ package life.qbic.io.commandline;
 import ch.ethz.sis.openbis.generic.OpenBIS;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.Experiment;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.Sample;
-import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -18,15 +19,21 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.xml.parsers.ParserConfigurationException;
 import life.qbic.App;
+import life.qbic.io.SeekIdMappingStore;
+import life.qbic.io.UploadCheckpointStore;
+import life.qbic.model.Configuration;
 import life.qbic.model.OpenbisExperimentWithDescendants;
 import life.qbic.model.OpenbisSeekTranslator;
+import life.qbic.model.download.DataTransferEngine;
 import life.qbic.model.download.SEEKConnector.SeekStructurePostRegistrationInformation;
 import life.qbic.model.isa.NodeType;
 import life.qbic.model.isa.SeekStructure;
 import life.qbic.model.download.OpenbisConnector;
 import life.qbic.model.download.SEEKConnector;
 import life.qbic.model.download.SEEKConnector.AssetToUpload;
+import life.qbic.model.download.SEEKHttpTransport;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.tuple.Pair;
 import org.xml.sax.SAXException;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
@@ -67,6 +74,33 @@ public class TransferDataToSeekCommand implements Runnable {
       "Transfers the data itself to SEEK along with the metadata. "
           + "Otherwise only the link(s) to the openBIS object will be created in SEEK.")
   private boolean transferData;
+  @Option(names = "--seek-parallelism", paramLabel = "<n>", description = "Number of requests "
+      + "(e.g. creation of samples or assets) that are sent to SEEK at the same time. 1 sends them "
+      + "one after another. Default: 'seek_max_connections' of the config file, or 8.")
+  private Integer seekParallelism;
+  @Option(names = "--continue-on-error", description = "Continue creating the remaining samples "
+      + "and assets in SEEK if some of them can not be created. Failures are listed at the end, "
+      + "links in openBIS and the local id mapping are not updated in that case.")
+  private boolean continueOnError;
+  @Option(names = "--transfer-workers", paramLabel = "<n>", description = "Number of files "
+      + "transferred from openBIS to SEEK at the same time, when data is transferred. Default: 2")
+  private int transferWorkers = 2;
+  @Option(names = "--transfer-host-limit", paramLabel = "<n>", description = "Maximum number of "
+      + "file transfers from or to the same server at the same time. Default: 2")
+  private int transferHostLimit = 2;
+  @Option(names = "--temp-dir", paramLabel = "<path>", description = "Directory for files that "
+      + "need to be downloaded before they are uploaded to SEEK, ideally on a fast local disk. "
+      + "Can alternatively be provided via the config file as 'transfer_temp_dir'. Default: the "
+      + "system's temp directory.")
+  private String tempDir;
+  @Option(names = "--parallel-translation", description = "Translates samples and files of the "
+      + "openBIS structure to SEEK objects using all processor cores. Useful for experiments with "
+      + "very many files. The result is the same as without this option.")
+  private boolean parallelTranslation;
+  @Option(names = "--verify-mapping", description = "Checks that SEEK objects found in the local "
+      + "openBIS to SEEK id mapping still exist before they are used. Stale mappings are removed "
+      + "and the object is searched in SEEK instead.")
+  private boolean verifyMapping;
   @Mixin
   SeekAuthenticationOptions seekAuth = new SeekAuthenticationOptions();
   @Mixin
@@ -74,6 +108,7 @@ public class TransferDataToSeekCommand implements Runnable {
   OpenbisConnector openbis;
   SEEKConnector seek;
   OpenbisSeekTranslator translator;
+  SeekIdMappingStore idMapping;
   //500 MB - user will be informed that the transfer will take a while, for each file larger than this
   private final long FILE_WARNING_SIZE = 500*1024*1024;
 
@@ -101,25 +136,18 @@ public class TransferDataToSeekCommand implements Runnable {
 
     this.openbis = new OpenbisConnector(authentication);
 
-    System.out.println("Searching for specified object in openBIS...");
+    System.out.println(
+        "Searching for specified object and collecting information from openBIS...");
 
-    boolean isExperiment = experimentExists(objectID);
-    NodeType nodeType = NodeType.ASSAY;
-
-    if (!isExperiment && sampleExists(objectID)) {
-      nodeType = NodeType.SAMPLE;
-    }
-
-    if (!isExperiment && !nodeType.equals(NodeType.SAMPLE) && datasetsExist(Arrays.asList(objectID))) {
-      nodeType = NodeType.ASSET;
-    }
-
-    if (nodeType.equals(NodeType.ASSAY) && !isExperiment) {
+    Optional<Pair<NodeType, OpenbisExperimentWithDescendants>> resolved =
+        openbis.resolveWithDescendants(objectID);
+    if (resolved.isEmpty()) {
       System.out.printf(
           "%s could not be found in openBIS. Make sure you either specify an experiment, sample or dataset%n",
           objectID);
       return;
     }
+    NodeType nodeType = resolved.get().getLeft();
     System.out.println("Search successful.");
     System.out.println("Connecting to SEEK...");
 
@@ -131,39 +159,55 @@ public class TransferDataToSeekCommand implements Runnable {
         throw new RuntimeException("a default project must be provided via config "+
         "('seek_default_project') or parameter.");
       }
+      Map<String, String> transportConfig = new HashMap<>(App.configProperties);
+      if(seekParallelism != null) {
+        transportConfig.put("seek_max_connections", seekParallelism.toString());
+      }
       seek = new SEEKConnector(seekAuth.getSeekURL(), httpCredentials,
-          openbisAuth.getOpenbisBaseURL(), App.configProperties.get("seek_default_project"));
+          openbisAuth.getOpenbisBaseURL(), App.configProperties.get("seek_default_project"),
+          SEEKHttpTransport.fromConfig(transportConfig));
       seek.setDefaultStudy(studyTitle);
+      seek.setContinueOnFailure(continueOnError);
       translator = seek.getTranslator();
+      translator.setParallelTranslation(parallelTranslation);
+      idMapping = SeekIdMappingStore.load(getIdMappingPath());
     } catch (URISyntaxException | IOException | InterruptedException |
              ParserConfigurationException | SAXException e) {
       throw new RuntimeException(e);
     }
     SeekStructurePostRegistrationInformation postRegInfo;
-    OpenbisExperimentWithDescendants structure;
+    OpenbisExperimentWithDescendants structure = resolved.get().getRight();
     try {
-      System.out.println("Collecting information from openBIS...");
-      switch (nodeType) {
-        case ASSAY:
-          structure = openbis.getExperimentWithDescendants(objectID);
-          break;
-        case SAMPLE:
-          structure = openbis.getExperimentAndDataFromSample(objectID);
-          break;
-        case ASSET:
-          structure = openbis.getExperimentStructureFromDataset(objectID);
-          break;
-        default:
-          throw new RuntimeException("Handling of node type " + nodeType + " is not supported.");
-      }
       postRegInfo = handleExperimentTransfer(structure, nodeType);
     } catch (URISyntaxException | IOException | InterruptedException e) {
       throw new RuntimeException(e);
     }
+    if(postRegInfo.getFailures().isEmpty()) {
+      idMapping.addAll(structure.getExperiment().getPermId().getPermId(), postRegInfo);
+      idMapping.save();
 
-    System.out.println("Creating links to new SEEK objects in openBIS...");
-    openbis.createSeekLinks(postRegInfo);
+      System.out.println("Creating links to new SEEK objects in openBIS...");
+      openbis.createSeekLinks(postRegInfo);
+    } else {
+      System.out.println("Not all SEEK objects could be created or filled with data. Links in "
+          + "openBIS and the local id mapping are not updated.");
+    }
 
+    System.out.printf("SEEK requests sent: %s, new TLS connections opened: %s%n",
+        seek.getTransport().getRequestsSent(), seek.getTransport().getTlsConnectionsOpened());
+    System.out.printf("openBIS metadata cache hits: %s, misses: %s%n",
+        openbis.getMetadataCache().getHits(), openbis.getMetadataCache().getMisses());
+    postRegInfo.getAssayReadinessWait().ifPresent(wait ->
+        System.out.printf("Waited %s ms for the new assay to become available in SEEK.%n",
+            wait.toMillis()));
+    List<String> failures = postRegInfo.getFailures();
+    if(!failures.isEmpty()) {
+      System.out.printf("%s SEEK object(s) could not be created or filled with data:%n",
+          failures.size());
+      for(String failure : failures) {
+        System.out.println(failure);
+      }
+    }
     System.out.println("Done");
   }
 
@@ -239,7 +283,7 @@ public class TransferDataToSeekCommand implements Runnable {
         seek.updateSampleNode(nodeWithChildren, sampleID);
     List<AssetToUpload> assetsToUpload = postRegInfo.getAssetsToUpload();
     if (transferData) {
-      handleDataTransfer(assetsToUpload);
+      postRegInfo.addFailures(handleDataTransfer(assetsToUpload));
     }
     postRegInfo.getExperimentIDWithEndpoint().ifPresentOrElse(
         (value) -> System.out.printf("%s was successfully updated.%n", value.getRight()),
@@ -306,7 +350,7 @@ public class TransferDataToSeekCommand implements Runnable {
         assayID);
     List<AssetToUpload> assetsToUpload = postRegInfo.getAssetsToUpload();
     if (transferData) {
-      handleDataTransfer(assetsToUpload);
+      postRegInfo.addFailures(handleDataTransfer(assetsToUpload));
     }
     postRegInfo.getExperimentIDWithEndpoint().ifPresentOrElse(
         (value) -> System.out.printf("%s was successfully updated.%n", value.getRight()),
@@ -322,54 +366,66 @@ public class TransferDataToSeekCommand implements Runnable {
         seek.createNode(nodeWithChildren);
     List<AssetToUpload> assetsToUpload = postRegInfo.getAssetsToUpload();
     if (transferData) {
-      handleDataTransfer(assetsToUpload);
+      postRegInfo.addFailures(handleDataTransfer(assetsToUpload));
     }
     System.out.printf("Assay was successfully created.%n");
     return postRegInfo;
   }
 
-  private void handleDataTransfer(List<AssetToUpload> assets)
-      throws URISyntaxException, IOException, InterruptedException {
-    final String tmpFolderPath = "tmp/";
-    for(AssetToUpload asset : assets) {
-      String filePath = asset.getFilePath();
-      String dsCode = asset.getDataSetCode();
-      if(asset.getFileSizeInBytes() > 1000*1024*1024) {
-        System.out.printf("Skipping %s due to size...%n",
-            filePath);
-      } else if (asset.getFileSizeInBytes() > 300 * 1024 * 1024) {
-        System.out.printf("File is %s MB...streaming might take a while%n",
-            asset.getFileSizeInBytes() / (1024 * 1024));
-        System.out.printf("Downloading file %s from openBIS to tmp folder due to size...%n",
-            filePath);
-        File tmpFile = openbis.downloadDataset(tmpFolderPath, dsCode, filePath);
-
-        System.out.printf("Uploading file to SEEK...%n");
-        String fileURL = seek.uploadFileContent(asset.getBlobEndpoint(), tmpFile.getAbsolutePath());
-        System.out.printf("File stored here: %s%n", fileURL);
-      } else {
-        System.out.printf("Streaming file %s from openBIS to SEEK...%n", asset.getFilePath());
-
-        String fileURL = seek.uploadStreamContent(asset.getBlobEndpoint(),
-            () -> openbis.streamDataset(asset.getDataSetCode(), asset.getFilePath()));
-        System.out.printf("File stored here: %s%n", fileURL);
-
+  private List<String> handleDataTransfer(List<AssetToUpload> assets)
+      throws InterruptedException {
+    DataTransferEngine engine = new DataTransferEngine(openbis, openbisAuth.getOpenbisDSS(), seek,
+        transferWorkers, transferHostLimit);
+    List<AssetToUpload> filesToTransfer = new ArrayList<>(assets);
+    String chunkSize = App.configProperties.get("seek_upload_chunk_size");
+    if(chunkSize != null && !chunkSize.isBlank()) {
+      UploadCheckpointStore checkpoints = UploadCheckpointStore.load(
+          getIdMappingPath().toAbsolutePath().resolveSibling("seek_upload_checkpoints.tsv"));
+      engine.setChunkedUploads((int) parseMegabytes("seek_upload_chunk_size", chunkSize,
+          Integer.MAX_VALUE), checkpoints);
+      for(AssetToUpload unfinished : checkpoints.getUnfinishedUploads()) {
+        if(unfinished.getBlobEndpoint().startsWith(seekAuth.getSeekURL()) && filesToTransfer
+            .stream().noneMatch(a -> a.getBlobEndpoint().equals(unfinished.getBlobEndpoint()))) {
+          System.out.printf("Resuming unfinished upload of %s from a previous transfer.%n",
+              unfinished.getFilePath());
+          filesToTransfer.add(unfinished);
+        }
       }
-      System.out.printf("Cleaning up temp folder%n");
-      cleanupTemp(new File(tmpFolderPath));
     }
+    if(tempDir == null || tempDir.isBlank()) {
+      tempDir = App.configProperties.get("transfer_temp_dir");
+    }
+    if(tempDir != null && !tempDir.isBlank()) {
+      engine.setTempDirectory(Paths.get(tempDir));
+    }
+    String memoryCeiling = App.configProperties.get("transfer_memory_ceiling");
+    if(memoryCeiling != null && !memoryCeiling.isBlank()) {
+      engine.setMemoryCeiling(parseMegabytes("transfer_memory_ceiling", memoryCeiling,
+          Long.MAX_VALUE));
+    }
+    return engine.transfer(filesToTransfer);
   }
 
-  private boolean sampleExists(String objectID) {
-    return openbis.sampleExists(objectID);
-  }
-
-  private boolean datasetsExist(List<String> datasetCodes) {
-    return openbis.findDataSets(datasetCodes).size() == datasetCodes.size();
-  }
-
-  private boolean experimentExists(String experimentID) {
-    return openbis.experimentExists(experimentID);
+  /**
+   * @param setting the name of the config setting, used in error messages
+   * @param megabytes a size in MB, as found in the config
+   * @param maxBytes the largest allowed size in bytes
+   * @return the size in bytes, at least 1 MB
+   */
+  private long parseMegabytes(String setting, String megabytes, long maxBytes) {
+    long maxMegabytes = maxBytes / (1024 * 1024);
+    long parsed;
+    try {
+      parsed = Long.parseLong(megabytes.trim());
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Expected a number of MB for " + setting + ", found: "
+          + megabytes);
+    }
+    if(parsed <= 0 || parsed > maxMegabytes) {
+      throw new RuntimeException(setting + " must be between 1 and " + maxMegabytes
+          + " MB, found: " + megabytes);
+    }
+    return parsed * 1024 * 1024;
   }
 
   private Optional<String> getAssayIDForOpenBISExperiment(Experiment experiment)
@@ -379,6 +435,18 @@ public class TransferDataToSeekCommand implements Runnable {
     // because if a perm id is found in the wrong SEEK node, meta-information in SEEK could be
     // overwritten or samples/data added to the wrong assay.
     String permID = experiment.getPermId().getPermId();
+    Optional<String> mappedEndpoint = idMapping.getEndpoint(permID);
+    if(mappedEndpoint.isPresent()) {
+      Optional<String> mappedID = seek.idFromEndpoint("assays", mappedEndpoint.get());
+      if(mappedID.isPresent() && seek.isAssayInCurrentStudy(mappedID.get())) {
+        if(!verifyMapping || seek.endPointExists(mappedEndpoint.get())) {
+          return mappedID;
+        }
+        System.out.printf("Mapped assay %s of %s does not exist anymore. Searching SEEK...%n",
+            mappedEndpoint.get(), experiment.getIdentifier().getIdentifier());
+        idMapping.remove(permID, mappedEndpoint.get());
+      }
+    }
     List<String> assayIDs = seek.searchAssaysInStudyContainingKeyword(permID);
     if(assayIDs.isEmpty()) {
       return Optional.empty();
@@ -403,17 +471,12 @@ public class TransferDataToSeekCommand implements Runnable {
     throw new RuntimeException("Experiment identifier "+id+ " was found in more than one sample: "+sampleIDs);
   }
 
-  private void cleanupTemp(File tmpFolder) {
-    File[] files = tmpFolder.listFiles();
-    if (files != null) { //some JVMs return null for empty dirs
-      for (File f : files) {
-        if (f.isDirectory()) {
-          cleanupTemp(f);
-        } else {
-          f.delete();
-        }
-      }
+  private Path getIdMappingPath() {
+    String mappingFile = App.configProperties.get("seek_id_mapping_file");
+    if(mappingFile == null || mappingFile.isBlank()) {
+      return Configuration.SEEK_ID_MAPPING_PATH;
     }
+    return Paths.get(mappingFile);
   }
 
 }
@@ -0,0 +1,48 @@
+package life.qbic.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory index of the samples and assets that are already attached to a SEEK assay. Samples
+ * are found by their openBIS identifier, assets by the permId of the openBIS dataset they were
+ * created from. Used to compare an existing assay to a new structure without further requests.
+ */
+public class AssayContentIndex {
+
+  private final Map<String, SampleInformation> samplesByOpenbisId = new HashMap<>();
+  private final Map<String, AssetInformation> assetsByDatasetPermId = new HashMap<>();
+
+  public AssayContentIndex(Collection<SampleInformation> samples,
+      Collection<AssetInformation> assets) {
+    for (SampleInformation sample : samples) {
+      samplesByOpenbisId.put(sample.getOpenBisIdentifier(), sample);
+    }
+    for (AssetInformation asset : assets) {
+      if (asset.getOpenbisPermId() != null) {
+        assetsByDatasetPermId.put(asset.getOpenbisPermId(), asset);
+      }
+    }
+  }
+
+  /**
+   * @param openBisIdentifier the identifier of an openBIS sample
+   * @return the existing SEEK sample created from the openBIS sample, or null if there is none
+   */
+  public SampleInformation getSample(String openBisIdentifier) {
+    return samplesByOpenbisId.get(openBisIdentifier);
+  }
+
+  public boolean containsAssetOfDataset(String datasetPermId) {
+    return assetsByDatasetPermId.containsKey(datasetPermId);
+  }
+
+  public int getNumberOfSamples() {
+    return samplesByOpenbisId.size();
+  }
+
+  public int getNumberOfAssets() {
+    return assetsByDatasetPermId.size();
+  }
+}
@@ -10,4 +10,6 @@ public class Configuration {
 
     public static final long MAX_DOWNLOAD_ATTEMPTS = 3;
     public static final Path LOG_PATH = Paths.get(System.getProperty("user.dir"),"logs");
+    public static final Path SEEK_ID_MAPPING_PATH = Paths.get(System.getProperty("user.dir"),
+        "seek_id_mapping.tsv");
 }
@@ -12,7 +12,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -20,6 +22,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -32,6 +38,7 @@ import life.qbic.model.isa.ISASampleType;
 import life.qbic.model.isa.ISASampleType.SampleAttribute;
 import life.qbic.model.isa.ISASampleType.SampleAttributeType;
 import life.qbic.model.isa.SeekStructure;
+import org.apache.commons.lang3.tuple.Pair;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -47,6 +54,7 @@ public class OpenbisSeekTranslator {
   private Map<DataType, SampleAttributeType> dataTypeToAttributeType;
   private Map<String, String> datasetTypeToAssetType;
   private Map<String, String> experimentTypeToAssayType;
+  private boolean parallel = false;
 
   public OpenbisSeekTranslator(String openBISBaseURL, String defaultProjectID)
       throws IOException, ParserConfigurationException, SAXException {
@@ -88,48 +96,9 @@ public class OpenbisSeekTranslator {
 
     SeekStructure result = new SeekStructure(assay, exp.getIdentifier().getIdentifier());
 
-    for(Sample sample : experiment.getSamples()) {
-      SampleType sampleType = sample.getType();
+    addSamples(result, experiment, sampleType -> "-1");
 
-      //try to put all attributes into sample properties, as they should be a 1:1 mapping
-      Map<String, String> typeCodesToNames = new HashMap<>();
-      Set<String> propertiesLinkingSamples = new HashSet<>();
-      for (PropertyAssignment a : sampleType.getPropertyAssignments()) {
-        String code = a.getPropertyType().getCode();
-        String label = a.getPropertyType().getLabel();
-        DataType type = a.getPropertyType().getDataType();
-        typeCodesToNames.put(code, label);
-        if(type.equals(DataType.SAMPLE)) {
-          propertiesLinkingSamples.add(code);
-        }
-      }
-      Map<String, Object> attributes = new HashMap<>();
-      for(String code : sample.getProperties().keySet()) {
-        String value = sample.getProperty(code);
-        if(propertiesLinkingSamples.contains(code)) {
-          value = generateOpenBISLinkFromPermID("SAMPLE", value);
-        }
-        attributes.put(typeCodesToNames.get(code), value);
-      }
-
-      String sampleID = sample.getIdentifier().getIdentifier();
-      attributes.put(App.configProperties.get("seek_openbis_sample_title"), sampleID);
-      ISASample isaSample = new ISASample(sample.getIdentifier().getIdentifier(), attributes,
-          "-1", Collections.singletonList(DEFAULT_PROJECT_ID));
-      result.addSample(isaSample, sampleID);
-    }
-
-    //create ISA files for assets. If actual data is to be uploaded is determined later based on flag
-    for(DatasetWithProperties dataset : experiment.getDatasets()) {
-      String permID = dataset.getCode();
-      if(!blacklist.contains(permID)) {
-        for(DataSetFile file : experiment.getFilesForDataset(permID)) {
-          String datasetType = getDatasetTypeOfFile(file, experiment.getDatasets());
-          datasetFileToSeekAsset(file, datasetType, transferData)
-              .ifPresent(seekAsset -> result.addAsset(seekAsset, file));
-        }
-      }
-    }
+    addAssets(result, experiment, blacklist, transferData);
     return result;
   }
 
@@ -245,60 +214,111 @@ public class OpenbisSeekTranslator {
 
     SeekStructure result = new SeekStructure(assay, exp.getIdentifier().getIdentifier());
 
-    for(Sample sample : experiment.getSamples()) {
-      SampleType sampleType = sample.getType();
+    addSamples(result, experiment, sampleType -> sampleTypesToIds.get(sampleType.getCode()));
+
+    addAssets(result, experiment, blacklist, transferData);
+    return result;
+  }
+
+  /**
+   * Labels of the properties of a sample type and the codes of properties linking other samples.
+   * Computed once per sample type and translation, instead of once per sample.
+   */
+  private static class SampleTypeProperties {
+
+    private final Map<String, String> codesToLabels = new HashMap<>();
+    private final Set<String> propertiesLinkingSamples = new HashSet<>();
 
-      //try to put all attributes into sample properties, as they should be a 1:1 mapping
-      Map<String, String> typeCodesToNames = new HashMap<>();
-      Set<String> propertiesLinkingSamples = new HashSet<>();
+    private SampleTypeProperties(SampleType sampleType) {
       for (PropertyAssignment a : sampleType.getPropertyAssignments()) {
         String code = a.getPropertyType().getCode();
-        String label = a.getPropertyType().getLabel();
-        DataType type = a.getPropertyType().getDataType();
-        typeCodesToNames.put(code, label);
-        if(type.equals(DataType.SAMPLE)) {
+        codesToLabels.put(code, a.getPropertyType().getLabel());
+        if(a.getPropertyType().getDataType().equals(DataType.SAMPLE)) {
           propertiesLinkingSamples.add(code);
         }
       }
-      Map<String, Object> attributes = new HashMap<>();
-      for(String code : sample.getProperties().keySet()) {
-        String value = sample.getProperty(code);
-        if(propertiesLinkingSamples.contains(code)) {
-          value = generateOpenBISLinkFromPermID("SAMPLE", value);
-        }
-        attributes.put(typeCodesToNames.get(code), value);
+    }
+  }
+
+  /**
+   * Translates the properties of a sample to SEEK attributes, named by the labels of the
+   * properties, and adds the sample identifier as title attribute.
+   * @param propertiesByType property information of the sample types already translated in this
+   *                         run, the type of this sample is added if missing
+   */
+  private Map<String, Object> translateSampleAttributes(Sample sample,
+      Map<String, SampleTypeProperties> propertiesByType) {
+    SampleType sampleType = sample.getType();
+    //try to put all attributes into sample properties, as they should be a 1:1 mapping
+    SampleTypeProperties typeProperties = propertiesByType.computeIfAbsent(sampleType.getCode(),
+        code -> new SampleTypeProperties(sampleType));
+    Map<String, Object> attributes = new HashMap<>();
+    for(String code : sample.getProperties().keySet()) {
+      String value = sample.getProperty(code);
+      if(typeProperties.propertiesLinkingSamples.contains(code)) {
+        value = generateOpenBISLinkFromPermID("SAMPLE", value);
       }
+      attributes.put(typeProperties.codesToLabels.get(code), value);
+    }
+    attributes.put(App.configProperties.get("seek_openbis_sample_title"),
+        sample.getIdentifier().getIdentifier());
+    return attributes;
+  }
+
+  /**
+   * If set, samples and files are translated in parallel. The result is added to the SEEK structure
+   * in the order of the openBIS structure, so it is identical to a sequential translation.
+   */
+  public void setParallelTranslation(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  private <T> Stream<T> stream(Collection<T> items) {
+    return parallel ? items.parallelStream() : items.stream();
+  }
 
+  /**
+   * Creates ISA samples for the samples of the openBIS structure.
+   * @param sampleTypeIdOf provides the SEEK id of the sample type of an openBIS sample
+   */
+  private void addSamples(SeekStructure result, OpenbisExperimentWithDescendants experiment,
+      Function<SampleType, String> sampleTypeIdOf) {
+    Map<String, SampleTypeProperties> propertiesByType = new ConcurrentHashMap<>();
+    List<Pair<ISASample, String>> samples = stream(experiment.getSamples()).map(sample -> {
       String sampleID = sample.getIdentifier().getIdentifier();
-      attributes.put(App.configProperties.get("seek_openbis_sample_title"), sampleID);
-      String sampleTypeId = sampleTypesToIds.get(sampleType.getCode());
-      ISASample isaSample = new ISASample(sample.getIdentifier().getIdentifier(), attributes,
-          sampleTypeId, Collections.singletonList(DEFAULT_PROJECT_ID));
-      result.addSample(isaSample, sampleID);
+      Map<String, Object> attributes = translateSampleAttributes(sample, propertiesByType);
+      ISASample isaSample = new ISASample(sampleID, attributes,
+          sampleTypeIdOf.apply(sample.getType()), Collections.singletonList(DEFAULT_PROJECT_ID));
+      return Pair.of(isaSample, sampleID);
+    }).collect(Collectors.toList());
+    for(Pair<ISASample, String> sample : samples) {
+      result.addSample(sample.getLeft(), sample.getRight());
     }
+  }
 
-    //create ISA files for assets. If actual data is to be uploaded is determined later based on flag
+  /**
+   * Creates ISA files for assets. If actual data is to be uploaded is determined later based on
+   * flag. Files are listed per dataset, so the type of their dataset is known without a search.
+   */
+  private void addAssets(SeekStructure result, OpenbisExperimentWithDescendants experiment,
+      Set<String> blacklist, boolean transferData) {
+    List<Pair<DataSetFile, String>> filesWithDatasetTypes = new ArrayList<>();
     for(DatasetWithProperties dataset : experiment.getDatasets()) {
       String permID = dataset.getCode();
       if(!blacklist.contains(permID)) {
+        String datasetType = dataset.getType().getCode();
         for(DataSetFile file : experiment.getFilesForDataset(permID)) {
-          String datasetType = getDatasetTypeOfFile(file, experiment.getDatasets());
-          datasetFileToSeekAsset(file, datasetType, transferData)
-              .ifPresent(seekAsset -> result.addAsset(seekAsset, file));
+          filesWithDatasetTypes.add(Pair.of(file, datasetType));
         }
       }
     }
-    return result;
-  }
-
-  private String getDatasetTypeOfFile(DataSetFile file, List<DatasetWithProperties> dataSets) {
-    String permId = file.getDataSetPermId().getPermId();
-    for(DatasetWithProperties dataset : dataSets) {
-      if(dataset.getCode().equals(permId)) {
-        return dataset.getType().getCode();
-      }
+    List<Pair<GenericSeekAsset, DataSetFile>> assets = stream(filesWithDatasetTypes)
+        .flatMap(file -> datasetFileToSeekAsset(file.getLeft(), file.getRight(), transferData)
+            .stream().map(seekAsset -> Pair.of(seekAsset, file.getLeft())))
+        .collect(Collectors.toList());
+    for(Pair<GenericSeekAsset, DataSetFile> asset : assets) {
+      result.addAsset(asset.getLeft(), asset.getRight());
     }
-    return "";
   }
 
   /**
@@ -0,0 +1,184 @@
+package life.qbic.model.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size ring buffer between a producer thread reading a source stream (e.g. a file streamed
+ * from openBIS) and a consumer reading the pipe (e.g. the body of an upload to SEEK). The producer
+ * blocks while the buffer is full and the consumer blocks while it is empty, so memory use never
+ * exceeds the capacity, independent of the speed of either side. Nothing is written to disk.
+ * Failures of the producer are passed on to the consumer, closing the consumer side stops the
+ * producer.
+ */
+public class BoundedPipe {
+
+  private final byte[] buffer;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private int readPosition = 0;
+  private int count = 0;
+  private boolean writerClosed = false;
+  private boolean readerClosed = false;
+  private Exception producerFailure;
+
+  private BoundedPipe(int capacity) {
+    this.buffer = new byte[capacity];
+  }
+
+  /**
+   * Starts copying the source stream into a new pipe, using a separate thread.
+   * @param source provides the stream to read from, it is opened and closed by the producer thread
+   * @param capacity the size of the buffer in bytes
+   * @param name name of the producer thread
+   * @return the consumer side of the pipe
+   */
+  public static InputStream start(Supplier<InputStream> source, int capacity, String name) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Pipe capacity must be positive, was " + capacity);
+    }
+    BoundedPipe pipe = new BoundedPipe(capacity);
+    OutputStream producerSide = pipe.new PipeOutputStream();
+    Thread producer = new Thread(() -> {
+      try (InputStream in = source.get()) {
+        in.transferTo(producerSide);
+        // only closed on success, otherwise the consumer would see a regular end of stream
+        producerSide.close();
+      } catch (IOException | RuntimeException e) {
+        pipe.fail(e);
+      }
+    }, name);
+    producer.setDaemon(true);
+    producer.start();
+    return pipe.new PipeInputStream();
+  }
+
+  private void fail(Exception e) {
+    lock.lock();
+    try {
+      producerFailure = e;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private class PipeInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      int read = read(single, 0, 1);
+      return read == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      lock.lock();
+      try {
+        while (count == 0 && !writerClosed && producerFailure == null && !readerClosed) {
+          notEmpty.await();
+        }
+        if (producerFailure != null) {
+          throw new IOException("Reading the source stream failed: "
+              + producerFailure.getMessage(), producerFailure);
+        }
+        if (readerClosed) {
+          throw new IOException("Pipe was closed.");
+        }
+        if (count == 0) {
+          return -1;
+        }
+        int length = Math.min(len, Math.min(count, buffer.length - readPosition));
+        System.arraycopy(buffer, readPosition, b, off, length);
+        readPosition = (readPosition + length) % buffer.length;
+        count -= length;
+        notFull.signalAll();
+        return length;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the source stream.");
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public int available() {
+      lock.lock();
+      try {
+        return count;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void close() {
+      lock.lock();
+      try {
+        readerClosed = true;
+        notFull.signalAll();
+        notEmpty.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private class PipeOutputStream extends OutputStream {
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      lock.lock();
+      try {
+        while (len > 0) {
+          while (count == buffer.length && !readerClosed) {
+            notFull.await();
+          }
+          if (readerClosed) {
+            throw new IOException("Pipe was closed by the consumer.");
+          }
+          int writePosition = (readPosition + count) % buffer.length;
+          int length = Math.min(len, Math.min(buffer.length - count,
+              buffer.length - writePosition));
+          System.arraycopy(b, off, buffer, writePosition, length);
+          count += length;
+          off += length;
+          len -= length;
+          notEmpty.signalAll();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the consumer.");
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void close() {
+      lock.lock();
+      try {
+        writerClosed = true;
+        notEmpty.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package life.qbic.model.download;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Uploads the content of a SEEK blob in chunks, using one PUT request with a Content-Range header
+ * per chunk. Each chunk is held in memory, so no part of the file is buffered on disk.
+ * The server has to acknowledge each chunk except the last one with status 308 (resume
+ * incomplete) and a Range header covering all bytes stored so far, e.g. "bytes=0-1048575". The
+ * last chunk has to be answered with 200 or 201, after which the size of the stored blob, as listed
+ * in the asset, is compared to the file size. Any other answer fails the upload, so content is
+ * never silently truncated or duplicated.
+ */
+public class ChunkedUploader {
+
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private final SEEKHttpTransport transport;
+  private final byte[] credentials;
+
+  public ChunkedUploader(SEEKHttpTransport transport, byte[] credentials) {
+    this.transport = transport;
+    this.credentials = credentials;
+  }
+
+  /**
+   * Uploads the file, starting at the provided offset. After each acknowledged chunk, the number of
+   * bytes stored in SEEK is passed to the checkpoint consumer, so a failed upload can be resumed at
+   * that offset. If the stored blob does not have the expected size, 0 is passed to the consumer,
+   * so the next attempt starts over. If all bytes were already stored, only the size is verified.
+   * @param blobEndpoint the endpoint of the content blob
+   * @param assetEndpoint the endpoint of the asset the blob belongs to, used to verify its size
+   * @param fileSize the size of the streamed file in bytes
+   * @param offset the number of bytes already stored in SEEK, these are skipped in the stream
+   * @param chunkSize the maximum size of each chunk in bytes
+   * @param streamSupplier provides the stream of the complete file
+   * @param checkpoint receives the number of bytes stored after each chunk
+   */
+  public void upload(String blobEndpoint, String assetEndpoint, long fileSize, long offset,
+      int chunkSize, Supplier<InputStream> streamSupplier, LongConsumer checkpoint)
+      throws URISyntaxException, IOException, InterruptedException {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive, was " + chunkSize);
+    }
+    if (offset < 0 || offset > fileSize) {
+      throw new IllegalArgumentException("Can not resume upload of " + fileSize + " bytes at "
+          + offset);
+    }
+    try (InputStream stream = streamSupplier.get()) {
+      skipFully(stream, offset);
+      byte[] chunk = new byte[(int) Math.min(chunkSize, fileSize - offset)];
+      long position = offset;
+      while (position < fileSize) {
+        int length = stream.readNBytes(chunk, 0, (int) Math.min(chunk.length, fileSize - position));
+        if (length == 0) {
+          throw new IOException("File stream ended after " + position + " of " + fileSize
+              + " bytes.");
+        }
+        long end = position + length - 1;
+        HttpRequest request = transport.newRequest(new URI(blobEndpoint))
+            .headers("Content-Type", "application/octet-stream")
+            .headers("Accept", "*/*")
+            .headers("Authorization", "Basic " + new String(credentials))
+            .headers("Content-Range", "bytes " + position + "-" + end + "/" + fileSize)
+            .PUT(BodyPublishers.ofByteArray(chunk, 0, length)).build();
+
+        HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
+        boolean lastChunk = end == fileSize - 1;
+        if (lastChunk) {
+          if (response.statusCode() != 200 && response.statusCode() != 201) {
+            throw new IOException("Last chunk of " + blobEndpoint + " was not accepted, HTTP "
+                + "status " + response.statusCode() + ": " + response.body());
+          }
+        } else {
+          if (response.statusCode() != 308) {
+            throw new IOException("Chunk " + position + "-" + end + " of " + blobEndpoint
+                + " was answered with HTTP status " + response.statusCode()
+                + " instead of 308 (resume incomplete): " + response.body());
+          }
+          Optional<String> range = response.headers().firstValue("Range");
+          if (range.isEmpty() || !range.get().trim().equals("bytes=0-" + end)) {
+            throw new IOException("SEEK acknowledged " + range.orElse("no range") + " of "
+                + blobEndpoint + " instead of bytes=0-" + end);
+          }
+        }
+        position += length;
+        checkpoint.accept(position);
+      }
+    }
+    long storedSize = getStoredSize(blobEndpoint, assetEndpoint);
+    if (storedSize != fileSize) {
+      checkpoint.accept(0);
+      throw new IOException("SEEK stored " + storedSize + " bytes in " + blobEndpoint
+          + " instead of " + fileSize);
+    }
+  }
+
+  private static void skipFully(InputStream stream, long bytes) throws IOException {
+    long toSkip = bytes;
+    while (toSkip > 0) {
+      long skipped = stream.skip(toSkip);
+      if (skipped <= 0) {
+        if (stream.read() == -1) {
+          throw new IOException("File stream ended before resume offset " + bytes);
+        }
+        skipped = 1;
+      }
+      toSkip -= skipped;
+    }
+  }
+
+  /**
+   * Reads the size of the blob from the content blobs listed in its asset.
+   */
+  private long getStoredSize(String blobEndpoint, String assetEndpoint)
+      throws URISyntaxException, IOException, InterruptedException {
+    HttpRequest request = transport.newRequest(new URI(assetEndpoint))
+        .headers("Content-Type", "application/json")
+        .headers("Accept", "application/json")
+        .headers("Authorization", "Basic " + new String(credentials))
+        .GET().build();
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException("Size of " + blobEndpoint + " could not be verified, HTTP status "
+          + response.statusCode());
+    }
+    JsonNode blobs = JSON_MAPPER.readTree(response.body()).path("data").path("attributes")
+        .path("content_blobs");
+    for (JsonNode blob : blobs) {
+      if (blobEndpoint.equals(blob.path("link").asText()) && blob.path("size").isNumber()) {
+        return blob.path("size").asLong();
+      }
+    }
+    throw new IOException("Size of " + blobEndpoint + " could not be verified, it is not listed "
+        + "in " + assetEndpoint);
+  }
+}
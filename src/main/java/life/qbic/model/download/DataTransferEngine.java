@@ -0,0 +1,372 @@
+package life.qbic.model.download;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import life.qbic.io.UploadCheckpointStore;
+import life.qbic.model.Configuration;
+import life.qbic.model.download.SEEKConnector.AssetToUpload;
+
+/**
+ * Transfers the content of openBIS dataset files to the blobs of their SEEK assets. Files are
+ * handled by a pool of workers, so the download of one file overlaps with the upload of another.
+ * Independently of the number of workers, the number of concurrent transfers per host (openBIS
+ * datastore server or SEEK) is limited. Failed files are retried with increasing delay, without
+ * affecting other files.
+ */
+public class DataTransferEngine {
+
+  //files larger than this are never buffered on disk, but streamed directly (in chunks, if set)
+  private static final long LARGE_FILE_SIZE = 1000L * 1024 * 1024;
+  //without a pipe, files larger than this (up to LARGE_FILE_SIZE) are downloaded to disk first
+  private static final long MAX_STREAMING_SIZE = 300L * 1024 * 1024;
+  private static final long DEFAULT_MEMORY_CEILING = 64L * 1024 * 1024;
+  //pipes smaller than this are not used, larger pipes do not speed up the transfer
+  private static final int MIN_PIPE_CAPACITY = 1024 * 1024;
+  private static final int MAX_PIPE_CAPACITY = 64 * 1024 * 1024;
+  //space that is left free in the temp folder's file system
+  private static final long DISK_SPACE_MARGIN = 100L * 1024 * 1024;
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+  private static final double BYTES_PER_MB = 1024 * 1024;
+
+  private final OpenbisConnector openbis;
+  private final SEEKConnector seek;
+  private final String openbisHost;
+  private final int workers;
+  private final int maxTransfersPerHost;
+  private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+  private Path runFolder;
+  private long reservedDiskSpace = 0;
+  private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+  private UploadCheckpointStore uploadCheckpoints;
+  private int uploadChunkSize = 0;
+  private long memoryCeiling = DEFAULT_MEMORY_CEILING;
+  private final AtomicLong bytesTransferred = new AtomicLong();
+  private final AtomicInteger filesTransferred = new AtomicInteger();
+  private long startTime;
+
+  /**
+   * @param openbis connector used to download files
+   * @param openbisDSSURL URL of the datastore server files are downloaded from
+   * @param seek connector used to upload files
+   * @param workers number of files transferred at the same time
+   * @param maxTransfersPerHost number of transfers from or to the same host at the same time
+   */
+  public DataTransferEngine(OpenbisConnector openbis, String openbisDSSURL, SEEKConnector seek,
+      int workers, int maxTransfersPerHost) {
+    if (workers < 1 || maxTransfersPerHost < 1) {
+      throw new IllegalArgumentException("At least one worker and one transfer per host are "
+          + "needed to transfer data.");
+    }
+    this.openbis = openbis;
+    this.seek = seek;
+    this.openbisHost = hostOf(openbisDSSURL);
+    this.workers = workers;
+    this.maxTransfersPerHost = maxTransfersPerHost;
+  }
+
+  /**
+   * Uploads large files in chunks of the provided size. Chunked uploads are resumed at the last
+   * acknowledged chunk when retried, also in later runs using the same checkpoint store. By
+   * default, large files are uploaded using a single request.
+   * @param bytes the size of each chunk in bytes, held in memory once per transferred file
+   * @param checkpoints keeps the number of bytes stored in SEEK for each unfinished upload
+   */
+  public void setChunkedUploads(int bytes, UploadCheckpointStore checkpoints) {
+    if (bytes < 1) {
+      throw new IllegalArgumentException("Upload chunk size must be positive, was " + bytes);
+    }
+    this.uploadChunkSize = bytes;
+    this.uploadCheckpoints = checkpoints;
+  }
+
+  /**
+   * Sets the directory where files are downloaded to, if they can not be streamed. Each run uses
+   * its own folder in this directory, each file a sub folder, which is deleted after its upload.
+   * A fast local file system should be used. Default: the system's temp directory.
+   */
+  public void setTempDirectory(Path tempDirectory) {
+    this.tempDirectory = tempDirectory;
+  }
+
+  /**
+   * Sets the memory available for buffers between downloads from openBIS and uploads to SEEK. It is
+   * shared by all workers. If each worker gets at least 1 MB, files of all sizes are streamed
+   * through a bounded in-memory pipe. Otherwise, files between 300 MB and 1 GB are downloaded to
+   * disk before they are uploaded. Chunks of chunked uploads are not part of this ceiling.
+   * @param bytes the memory ceiling in bytes, 0 disables pipes
+   */
+  public void setMemoryCeiling(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Memory ceiling must not be negative, was " + bytes);
+    }
+    this.memoryCeiling = bytes;
+  }
+
+  private int getPipeCapacity() {
+    return (int) Math.min(memoryCeiling / workers, MAX_PIPE_CAPACITY);
+  }
+
+  private boolean usePipes() {
+    return getPipeCapacity() >= MIN_PIPE_CAPACITY;
+  }
+
+  /**
+   * Transfers the content of the provided assets and waits until all files are done.
+   * @param assets assets created in SEEK, containing the blob endpoints and openBIS file paths
+   * @return descriptions of files that could not be transferred, even after retries
+   */
+  public List<String> transfer(List<AssetToUpload> assets) throws InterruptedException {
+    List<AssetToUpload> filesToTransfer = new ArrayList<>(assets);
+    List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (AssetToUpload asset : filesToTransfer) {
+      tasks.add(() -> {
+        transferWithRetries(asset, filesToTransfer.size(), failures);
+        return null;
+      });
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "data-transfer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    startTime = System.nanoTime();
+    try {
+      pool.invokeAll(tasks);
+    } finally {
+      pool.shutdownNow();
+      deleteRunFolder();
+    }
+    System.out.printf("Transferred %s of %s files (%.1f MB) at %.1f MB/s.%n",
+        filesTransferred.get(), filesToTransfer.size(), bytesTransferred.get() / BYTES_PER_MB,
+        getThroughput());
+    return new ArrayList<>(failures);
+  }
+
+  private void transferWithRetries(AssetToUpload asset, int numberOfFiles, List<String> failures) {
+    long delay = INITIAL_RETRY_DELAY_MILLIS;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        String fileURL = transferFile(asset);
+        bytesTransferred.addAndGet(asset.getFileSizeInBytes());
+        System.out.printf("File %s stored here: %s (%s of %s files, %.1f MB/s)%n",
+            asset.getFilePath(), fileURL, filesTransferred.incrementAndGet(), numberOfFiles,
+            getThroughput());
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failures.add(asset.getFilePath() + ": transfer was interrupted");
+        return;
+      } catch (InsufficientDiskSpaceException e) {
+        failures.add(asset.getFilePath() + ": " + e.getMessage());
+        return;
+      } catch (IOException | URISyntaxException | RuntimeException e) {
+        if (attempt >= Configuration.MAX_DOWNLOAD_ATTEMPTS) {
+          failures.add(asset.getFilePath() + ": " + e.getMessage());
+          return;
+        }
+        System.out.printf("Transfer of %s failed (attempt %s of %s): %s. Retrying in %s ms...%n",
+            asset.getFilePath(), attempt, Configuration.MAX_DOWNLOAD_ATTEMPTS, e.getMessage(),
+            delay);
+      }
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failures.add(asset.getFilePath() + ": transfer was interrupted");
+        return;
+      }
+      delay *= 2;
+    }
+  }
+
+  private String transferFile(AssetToUpload asset)
+      throws IOException, URISyntaxException, InterruptedException {
+    String seekHost = hostOf(asset.getBlobEndpoint());
+    if (asset.getFileSizeInBytes() > LARGE_FILE_SIZE) {
+      return transferLargeFile(asset, seekHost);
+    }
+    if (usePipes() || asset.getFileSizeInBytes() <= MAX_STREAMING_SIZE) {
+      System.out.printf("Streaming file %s from openBIS to SEEK...%n", asset.getFilePath());
+      return withPermits(List.of(openbisHost, seekHost), () -> withFileStream(asset,
+          source -> seek.uploadStreamContent(asset.getBlobEndpoint(), source)));
+    }
+    System.out.printf("File %s is %s MB...downloading it to temp folder first%n",
+        asset.getFilePath(), asset.getFileSizeInBytes() / (1024 * 1024));
+    Path fileFolder = Files.createTempDirectory(getRunFolder(), asset.getDataSetCode());
+    reserveDiskSpace(fileFolder, asset.getFileSizeInBytes());
+    try {
+      File tmpFile = withPermits(List.of(openbisHost), () ->
+          openbis.downloadDataset(fileFolder.toString(), asset.getDataSetCode(),
+              asset.getFilePath()));
+      return withPermits(List.of(seekHost), () ->
+          seek.uploadFileContent(asset.getBlobEndpoint(), tmpFile.getAbsolutePath()));
+    } finally {
+      deleteRecursively(fileFolder);
+      releaseDiskSpace(asset.getFileSizeInBytes());
+    }
+  }
+
+  private synchronized Path getRunFolder() throws IOException {
+    if (runFolder == null) {
+      Files.createDirectories(tempDirectory);
+      runFolder = Files.createTempDirectory(tempDirectory, "openbis-to-seek-");
+    }
+    return runFolder;
+  }
+
+  private synchronized void deleteRunFolder() {
+    if (runFolder != null) {
+      try {
+        deleteRecursively(runFolder);
+      } catch (IOException e) {
+        System.out.printf("Temp folder %s could not be removed: %s%n", runFolder, e.getMessage());
+      }
+      runFolder = null;
+    }
+  }
+
+  /**
+   * Makes sure there is enough usable space for a download, including the space needed by other
+   * downloads in progress. Fails without retries otherwise, so the disk is not filled up.
+   */
+  private synchronized void reserveDiskSpace(Path folder, long bytes) throws IOException {
+    long usable = Files.getFileStore(folder).getUsableSpace();
+    if (usable - reservedDiskSpace - DISK_SPACE_MARGIN < bytes) {
+      deleteRecursively(folder);
+      throw new InsufficientDiskSpaceException(String.format("Not enough space in %s to download "
+              + "%s MB (%s MB usable, %s MB needed by other downloads).", tempDirectory,
+          bytes / (1024 * 1024), usable / (1024 * 1024), reservedDiskSpace / (1024 * 1024)));
+    }
+    reservedDiskSpace += bytes;
+  }
+
+  private synchronized void releaseDiskSpace(long bytes) {
+    reservedDiskSpace -= bytes;
+  }
+
+  private String transferLargeFile(AssetToUpload asset, String seekHost)
+      throws IOException, URISyntaxException, InterruptedException {
+    String blobEndpoint = asset.getBlobEndpoint();
+    if (uploadChunkSize == 0) {
+      System.out.printf("File %s is %s MB...streaming might take a while%n", asset.getFilePath(),
+          asset.getFileSizeInBytes() / (1024 * 1024));
+      return withPermits(List.of(openbisHost, seekHost), () -> withFileStream(asset,
+          source -> seek.uploadStreamContent(blobEndpoint, source)));
+    }
+    long offset = uploadCheckpoints.getBytesStored(asset).orElse(0);
+    if (offset > 0) {
+      System.out.printf("Resuming upload of %s after %s of %s MB...%n", asset.getFilePath(),
+          offset / (1024 * 1024), asset.getFileSizeInBytes() / (1024 * 1024));
+    } else {
+      System.out.printf("File %s is %s MB...streaming it in chunks%n", asset.getFilePath(),
+          asset.getFileSizeInBytes() / (1024 * 1024));
+    }
+    String fileURL = withPermits(List.of(openbisHost, seekHost), () -> withFileStream(asset,
+        source -> seek.uploadStreamContentInChunks(blobEndpoint, asset.getFileSizeInBytes(),
+            offset, uploadChunkSize, source,
+            bytesStored -> uploadCheckpoints.update(asset, bytesStored))));
+    uploadCheckpoints.remove(asset);
+    return fileURL;
+  }
+
+  /**
+   * Runs an upload step with a supplier of the file's openBIS stream. If the memory ceiling allows,
+   * the stream is read through a bounded pipe, so downloading continues while the upload waits for
+   * the network, until the pipe is full. Pipes are closed once the step is done, which also stops
+   * downloads that were not fully read due to failed uploads.
+   */
+  private <T> T withFileStream(AssetToUpload asset, StreamingStep<T> step)
+      throws IOException, URISyntaxException, InterruptedException {
+    Supplier<InputStream> source = () -> openbis.streamDataset(asset.getDataSetCode(),
+        asset.getFilePath());
+    if (!usePipes()) {
+      return step.run(source);
+    }
+    int capacity = getPipeCapacity();
+    List<InputStream> pipes = Collections.synchronizedList(new ArrayList<>());
+    try {
+      return step.run(() -> {
+        InputStream pipe = BoundedPipe.start(source, capacity, "openbis-stream");
+        pipes.add(pipe);
+        return pipe;
+      });
+    } finally {
+      for (InputStream pipe : pipes) {
+        pipe.close();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface StreamingStep<T> {
+
+    T run(Supplier<InputStream> source)
+        throws IOException, URISyntaxException, InterruptedException;
+  }
+
+  /**
+   * Runs a transfer step while holding one permit for each of the provided hosts. Permits are
+   * always acquired in the same order, so concurrent steps can not block each other.
+   */
+  private <T> T withPermits(List<String> hosts, TransferStep<T> step)
+      throws IOException, URISyntaxException, InterruptedException {
+    List<Semaphore> acquired = new ArrayList<>();
+    try {
+      for (String host : new TreeSet<>(hosts)) {
+        Semaphore permits = hostPermits.computeIfAbsent(host,
+            h -> new Semaphore(maxTransfersPerHost));
+        permits.acquire();
+        acquired.add(permits);
+      }
+      return step.run();
+    } finally {
+      acquired.forEach(Semaphore::release);
+    }
+  }
+
+  @FunctionalInterface
+  private interface TransferStep<T> {
+
+    T run() throws IOException, URISyntaxException, InterruptedException;
+  }
+
+  private double getThroughput() {
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    return seconds > 0 ? bytesTransferred.get() / BYTES_PER_MB / seconds : 0;
+  }
+
+  private static String hostOf(String url) {
+    String host = URI.create(url).getHost();
+    return host == null ? url : host;
+  }
+
+  private static void deleteRecursively(Path folder) throws IOException {
+    try (Stream<Path> paths = Files.walk(folder)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package life.qbic.model.download;
+
+/**
+ * InsufficientDiskSpaceException indicates that a file can not be downloaded, because the temp
+ * folder does not have enough usable space left.
+ */
+public class InsufficientDiskSpaceException extends RuntimeException {
+
+  InsufficientDiskSpaceException(String msg) {
+    super(msg);
+  }
+
+}
@@ -0,0 +1,110 @@
+package life.qbic.model.download;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps rarely changing metadata of an openBIS instance (e.g. entity types, spaces) for the
+ * duration of a session, so repeated operations do not search the application server for it
+ * every time. Entries expire after a fixed time and can be invalidated explicitly, e.g. after
+ * types were changed. Cached values are shared, callers must not modify them.
+ */
+public class MetadataCache {
+
+  private static class Entry {
+
+    private final CompletableFuture<Object> value = new CompletableFuture<>();
+    private final long loadedAt;
+
+    private Entry(long loadedAt) {
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  private final long timeToLiveNanos;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param timeToLive how long entries are used after they were loaded. Zero or negative values
+   *                   disable caching.
+   */
+  public MetadataCache(Duration timeToLive) {
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  /**
+   * Returns the cached value of a key, if it has not expired, otherwise loads and caches it.
+   * Concurrent requests of the same missing key load it only once: the first caller loads it,
+   * outside of the map's locks, and the others wait for its result. Failed loads are not cached.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(String key, Supplier<T> loader) {
+    if (timeToLiveNanos <= 0) {
+      misses.increment();
+      return loader.get();
+    }
+    while (true) {
+      long now = System.nanoTime();
+      Entry cached = entries.get(key);
+      if (cached != null && now - cached.loadedAt < timeToLiveNanos) {
+        hits.increment();
+        return (T) await(cached);
+      }
+      Entry entry = new Entry(now);
+      boolean owner = cached == null
+          ? entries.putIfAbsent(key, entry) == null
+          : entries.replace(key, cached, entry);
+      if (!owner) {
+        // another thread started loading the key in the meantime
+        continue;
+      }
+      misses.increment();
+      try {
+        entry.value.complete(loader.get());
+      } catch (RuntimeException | Error e) {
+        entries.remove(key, entry);
+        entry.value.completeExceptionally(e);
+        throw e;
+      }
+      return (T) entry.value.join();
+    }
+  }
+
+  private Object await(Entry entry) {
+    try {
+      return entry.value.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Removes the entry of a key, so it is loaded again when requested next. The keys used by
+   * OpenbisConnector are its *_CACHE_KEY constants.
+   */
+  public void invalidate(String key) {
+    entries.remove(key);
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+}
@@ -7,15 +7,20 @@ import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.DataSetType;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.fetchoptions.DataSetFetchOptions;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.fetchoptions.DataSetTypeFetchOptions;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.id.DataSetPermId;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.id.IDataSetId;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.search.DataSetSearchCriteria;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.search.DataSetTypeSearchCriteria;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.update.DataSetUpdate;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.entitytype.EntityKind;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.entitytype.id.EntityTypePermId;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.Experiment;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.ExperimentType;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.fetchoptions.ExperimentFetchOptions;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.fetchoptions.ExperimentTypeFetchOptions;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.id.ExperimentIdentifier;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.id.IExperimentId;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.search.ExperimentSearchCriteria;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.search.ExperimentTypeSearchCriteria;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.update.ExperimentUpdate;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.Sample;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.SampleType;
@@ -23,6 +28,8 @@ import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.create.SampleCreation;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.fetchoptions.SampleFetchOptions;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.fetchoptions.SampleTypeFetchOptions;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.id.SampleIdentifier;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.id.ISampleId;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.id.SamplePermId;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.search.SampleSearchCriteria;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.search.SampleTypeSearchCriteria;
 import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.update.SampleUpdate;
@@ -43,20 +50,36 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import life.qbic.App;
 import life.qbic.model.DatasetWithProperties;
 import life.qbic.model.OpenbisExperimentWithDescendants;
 import life.qbic.model.SampleTypeConnection;
 import life.qbic.model.SampleTypesAndMaterials;
+import life.qbic.model.isa.NodeType;
 import life.qbic.model.download.SEEKConnector.SeekStructurePostRegistrationInformation;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -72,15 +95,80 @@ public class OpenbisConnector {
   public final String SAMPLE_LINK_PROPERTY = "experimentLink";
   public final String DATASET_LINK_PROPERTY = "experimentLink";
 
+  // keys of the entries of the metadata cache, e.g. to invalidate them
+  public static final String SPACES_CACHE_KEY = "spaces";
+  public static final String EXPERIMENT_TYPES_CACHE_KEY = "experimentTypes";
+  public static final String DATASET_TYPES_CACHE_KEY = "datasetTypes";
+  public static final String SAMPLE_TYPES_CACHE_KEY = "sampleTypes";
+  public static final String LINK_SAMPLE_TYPE_CACHE_KEY = "sampleType:EXTERNAL_LINK";
+
+  private static final int DEFAULT_FILE_LISTING_CHUNK_SIZE = 100;
+  private static final int DEFAULT_FILE_LISTING_THREADS = 4;
+  private static final int DEFAULT_SEARCH_PAGE_SIZE = 10000;
+  private static final int DEFAULT_LINK_BATCH_SIZE = 500;
+  private static final int DEFAULT_METADATA_CACHE_SECONDS = 600;
+  private static final int DEFAULT_COUNT_THREADS = 4;
+  private int fileListingChunkSize;
+  private int fileListingThreads;
+  private final int searchPageSize;
+  private final int linkBatchSize;
+  private final MetadataCache metadataCache;
+  private final int countThreads;
+
   public OpenbisConnector(OpenBIS authentication) {
     this.openBIS = authentication;
+    this.fileListingChunkSize = parseSetting("openbis_file_listing_chunk_size",
+        DEFAULT_FILE_LISTING_CHUNK_SIZE);
+    this.fileListingThreads = parseSetting("openbis_file_listing_threads",
+        DEFAULT_FILE_LISTING_THREADS);
+    this.searchPageSize = parseSetting("openbis_search_page_size", DEFAULT_SEARCH_PAGE_SIZE);
+    this.linkBatchSize = parseSetting("openbis_link_batch_size", DEFAULT_LINK_BATCH_SIZE);
+    this.metadataCache = new MetadataCache(Duration.ofSeconds(
+        parseSetting("openbis_metadata_cache_seconds", DEFAULT_METADATA_CACHE_SECONDS)));
+    this.countThreads = Math.max(1, parseSetting("openbis_count_threads", DEFAULT_COUNT_THREADS));
+  }
+
+  private static int parseSetting(String key, int defaultValue) {
+    String value = App.configProperties.get(key);
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Expected a number for " + key + ", found: " + value);
+    }
+  }
+
+  /**
+   * Sets how files of many datasets are listed: the number of datasets per request to the
+   * datastore server and the number of requests sent at the same time.
+   */
+  public void setFileListingOptions(int chunkSize, int threads) {
+    if (chunkSize < 1 || threads < 1) {
+      throw new IllegalArgumentException("Chunk size and number of threads must be positive.");
+    }
+    this.fileListingChunkSize = chunkSize;
+    this.fileListingThreads = threads;
+  }
+
+  /**
+   * Returns the cache of types and spaces of this session, e.g. to read its hit and miss counts or
+   * to invalidate it after metadata was changed in openBIS. Its entries are stored under the
+   * *_CACHE_KEY constants of this class.
+   */
+  public MetadataCache getMetadataCache() {
+    return metadataCache;
   }
 
   public List<String> getSpaces() {
-    SpaceSearchCriteria criteria = new SpaceSearchCriteria();
-    SpaceFetchOptions options = new SpaceFetchOptions();
-    return openBIS.searchSpaces(criteria, options).getObjects()
-        .stream().map(Space::getCode).collect(Collectors.toList());
+    List<String> spaces = metadataCache.get(SPACES_CACHE_KEY, () -> {
+      SpaceSearchCriteria criteria = new SpaceSearchCriteria();
+      SpaceFetchOptions options = new SpaceFetchOptions();
+      return openBIS.searchSpaces(criteria, options).getObjects()
+          .stream().map(Space::getCode).collect(Collectors.toList());
+    });
+    return new ArrayList<>(spaces);
   }
 
   public DataSetPermId registerDatasetForExperiment(Path uploadPath, String experimentID,
@@ -216,66 +304,158 @@ public class OpenbisConnector {
   }
 
   public Map<SampleTypeConnection, Integer> queryFullSampleHierarchy(List<String> spaces) {
-    Map<SampleTypeConnection, Integer> hierarchy = new HashMap<>();
-    if (spaces.isEmpty()) {
-      spaces = getSpaces();
-    }
-    for (String space : spaces) {
-      SampleFetchOptions fetchType = new SampleFetchOptions();
-      fetchType.withType();
-      SampleFetchOptions withDescendants = new SampleFetchOptions();
-      withDescendants.withChildrenUsing(fetchType);
-      withDescendants.withType();
-      SampleSearchCriteria criteria = new SampleSearchCriteria();
-      criteria.withSpace().withCode().thatEquals(space.toUpperCase());
-      SearchResult<Sample> result = openBIS.searchSamples(criteria, withDescendants);
-      for (Sample s : result.getObjects()) {
-        SampleType parentType = s.getType();
-        List<Sample> children = s.getChildren();
-        if (children.isEmpty()) {
-          SampleTypeConnection leaf = new SampleTypeConnection(parentType);
-          if (hierarchy.containsKey(leaf)) {
-            int count = hierarchy.get(leaf) + 1;
-            hierarchy.put(leaf, count);
-          } else {
-            hierarchy.put(leaf, 1);
-          }
-        } else {
-          for (Sample c : children) {
-            SampleType childType = c.getType();
-            SampleTypeConnection connection = new SampleTypeConnection(parentType, childType);
-            if (hierarchy.containsKey(connection)) {
-              int count = hierarchy.get(connection) + 1;
-              hierarchy.put(connection, count);
-            } else {
-              hierarchy.put(connection, 1);
-            }
-          }
-        }
+    return queryFullSampleHierarchy(spaces, 1);
+  }
+
+  /**
+   * Counts how often samples of one type are parents of samples of another type, as well as
+   * samples without children, by type. Spaces are queried at the same time by the provided number
+   * of workers and progress is reported for each completed space.
+   * @param spaces the spaces to query, all available spaces if empty
+   * @param workers the number of spaces queried at the same time
+   * @return number of sample type connections found
+   */
+  public Map<SampleTypeConnection, Integer> queryFullSampleHierarchy(List<String> spaces,
+      int workers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("At least one worker is needed, was " + workers);
+    }
+    List<String> spacesToQuery = spaces.isEmpty() ? getSpaces() : spaces;
+    if (spacesToQuery.isEmpty()) {
+      return new HashMap<>();
+    }
+    Map<SampleTypeConnection, LongAdder> counters = new ConcurrentHashMap<>();
+    AtomicInteger completedSpaces = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(workers, spacesToQuery.size()));
+    try {
+      List<CompletableFuture<Void>> queries = new ArrayList<>();
+      for (String space : spacesToQuery) {
+        queries.add(CompletableFuture.runAsync(() -> {
+          countSampleTypeConnections(space, counters);
+          System.out.printf("Queried space %s (%s of %s)%n", space,
+              completedSpaces.incrementAndGet(), spacesToQuery.size());
+        }, executor));
       }
+      CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      throw new RuntimeException("Sample hierarchy could not be queried.", e.getCause());
+    } finally {
+      executor.shutdown();
     }
+    Map<SampleTypeConnection, Integer> hierarchy = new HashMap<>();
+    counters.forEach((connection, count) -> hierarchy.put(connection, count.intValue()));
     return hierarchy;
   }
 
-  private Set<String> getPropertiesFromSampleHierarchy(String propertyName, List<Sample> samples,
-      Set<String> foundProperties) {
-    if(samples.isEmpty()) {
-      return foundProperties;
+  /**
+   * Counts sample type connections of one space. Only permIds and types are fetched, page by page.
+   * Parent-child relations are kept as an edge list of permIds, the type of each sample is only
+   * stored once, so memory depends on the number of samples instead of their relations.
+   */
+  private void countSampleTypeConnections(String space,
+      Map<SampleTypeConnection, LongAdder> counters) {
+    SampleFetchOptions options = new SampleFetchOptions();
+    options.withType();
+    options.withChildren();
+    options.sortBy().permId();
+    SampleSearchCriteria criteria = new SampleSearchCriteria();
+    criteria.withSpace().withCode().thatEquals(space.toUpperCase());
+
+    Map<String, SampleType> typesByCode = new HashMap<>();
+    Map<String, SampleType> typesByPermId = new HashMap<>();
+    List<Pair<String, String>> edges = new ArrayList<>();
+    PagedSearch<Sample> samples = new PagedSearch<>((from, count) -> {
+      options.from(from);
+      options.count(count);
+      return openBIS.searchSamples(criteria, options);
+    }, searchPageSize);
+    for (Sample sample : samples) {
+      SampleType type = typesByCode.computeIfAbsent(sample.getType().getCode(),
+          code -> sample.getType());
+      String permId = sample.getPermId().getPermId();
+      typesByPermId.put(permId, type);
+      if (sample.getChildren().isEmpty()) {
+        counters.computeIfAbsent(new SampleTypeConnection(type), c -> new LongAdder())
+            .increment();
+      }
+      for (Sample child : sample.getChildren()) {
+        edges.add(Pair.of(permId, child.getPermId().getPermId()));
+      }
     }
-    for(Sample s : samples) {
-      if(s.getProperties().containsKey(propertyName)) {
-        foundProperties.add(s.getProperties().get(propertyName));
+    fetchMissingSampleTypes(edges, typesByPermId, typesByCode);
+    for (Pair<String, String> edge : edges) {
+      SampleType childType = typesByPermId.get(edge.getRight());
+      if (childType != null) {
+        SampleTypeConnection connection = new SampleTypeConnection(
+            typesByPermId.get(edge.getLeft()), childType);
+        counters.computeIfAbsent(connection, key -> new LongAdder()).increment();
       }
     }
-    return getPropertiesFromSampleHierarchy(propertyName,
-        samples.stream().map(Sample::getParents).flatMap(List::stream).collect(Collectors.toList()),
-        foundProperties);
   }
 
+  /**
+   * Fetches the types of children that are not part of the queried space, in batches.
+   */
+  private void fetchMissingSampleTypes(List<Pair<String, String>> edges,
+      Map<String, SampleType> typesByPermId, Map<String, SampleType> typesByCode) {
+    List<SamplePermId> missing = edges.stream()
+        .map(Pair::getRight)
+        .filter(permId -> !typesByPermId.containsKey(permId))
+        .distinct()
+        .map(SamplePermId::new)
+        .collect(Collectors.toList());
+    SampleFetchOptions typeOnly = new SampleFetchOptions();
+    typeOnly.withType();
+    for (int i = 0; i < missing.size(); i += searchPageSize) {
+      List<SamplePermId> batch = missing.subList(i, Math.min(i + searchPageSize, missing.size()));
+      for (Sample sample : openBIS.getSamples(batch, typeOnly).values()) {
+        typesByPermId.put(sample.getPermId().getPermId(), typesByCode.computeIfAbsent(
+            sample.getType().getCode(), code -> sample.getType()));
+      }
+    }
+  }
+
+  /**
+   * Collects all values of a property found in the samples of an experiment and their ancestors.
+   * Ancestors are fetched breadth-first, one level of parents per request, until no new parents
+   * are found. Samples reachable via several paths are only fetched once.
+   * @param propertyName the code of the property
+   * @param experimentId the experiment containing the samples to start from
+   * @return the values of the property found
+   */
   public Set<String> findPropertiesInSampleHierarchy(String propertyName,
       ExperimentIdentifier experimentId) {
-    return getPropertiesFromSampleHierarchy(propertyName,
-        getSamplesWithAncestorsOfExperiment(experimentId), new HashSet<>());
+    SampleFetchOptions options = new SampleFetchOptions();
+    options.withProperties();
+    options.withParents();
+
+    SampleSearchCriteria criteria = new SampleSearchCriteria();
+    criteria.withExperiment().withId().thatEquals(experimentId);
+
+    Set<String> foundProperties = new HashSet<>();
+    Set<String> visited = new HashSet<>();
+    List<Sample> level = openBIS.searchSamples(criteria, options).getObjects();
+    level.forEach(sample -> visited.add(sample.getPermId().getPermId()));
+    while (!level.isEmpty()) {
+      List<SamplePermId> parentIds = new ArrayList<>();
+      for (Sample sample : level) {
+        if (sample.getProperties().containsKey(propertyName)) {
+          foundProperties.add(sample.getProperties().get(propertyName));
+        }
+        for (Sample parent : sample.getParents()) {
+          if (visited.add(parent.getPermId().getPermId())) {
+            parentIds.add(parent.getPermId());
+          }
+        }
+      }
+      level = new ArrayList<>();
+      for (int i = 0; i < parentIds.size(); i += searchPageSize) {
+        level.addAll(openBIS.getSamples(parentIds.subList(i,
+            Math.min(i + searchPageSize, parentIds.size())), options).values());
+      }
+    }
+    return foundProperties;
   }
 
   public Map<String, List<Experiment>> getExperimentsBySpace(List<String> spaces) {
@@ -391,6 +571,252 @@ public class OpenbisConnector {
     return result;
   }
 
+  /**
+   * Passes all experiments of the provided spaces to the consumer. Experiments are fetched page by
+   * page, with their project, space and type.
+   */
+  public void forEachExperimentInSpaces(List<String> spaces, Consumer<Experiment> consumer) {
+    ExperimentFetchOptions options = new ExperimentFetchOptions();
+    options.withProject().withSpace();
+    options.withType();
+    options.sortBy().permId();
+
+    ExperimentSearchCriteria criteria = new ExperimentSearchCriteria();
+    criteria.withProject().withSpace().withCodes().thatIn(spaces);
+    new PagedSearch<>((from, count) -> {
+      options.from(from);
+      options.count(count);
+      return openBIS.searchExperiments(criteria, options);
+    }, searchPageSize).forEach(consumer);
+  }
+
+  /**
+   * Passes all samples of the provided spaces to the consumer. Samples are fetched page by page,
+   * with their space and type.
+   */
+  public void forEachSampleInSpaces(List<String> spaces, Consumer<Sample> consumer) {
+    SampleFetchOptions options = new SampleFetchOptions();
+    options.withSpace();
+    options.withType();
+    options.sortBy().permId();
+
+    SampleSearchCriteria criteria = new SampleSearchCriteria();
+    criteria.withSpace().withCodes().thatIn(spaces);
+    new PagedSearch<>((from, count) -> {
+      options.from(from);
+      options.count(count);
+      return openBIS.searchSamples(criteria, options);
+    }, searchPageSize).forEach(consumer);
+  }
+
+  /**
+   * Passes all datasets attached to samples or experiments of the provided spaces to the consumer.
+   * Datasets are fetched page by page, with their type and the space of their sample or experiment.
+   */
+  public void forEachDatasetInSpaces(List<String> spaces, Consumer<DataSet> consumer) {
+    DataSetFetchOptions options = new DataSetFetchOptions();
+    options.withSample().withSpace();
+    options.withExperiment().withProject().withSpace();
+    options.withType();
+    options.sortBy().permId();
+
+    DataSetSearchCriteria criteria = new DataSetSearchCriteria();
+    criteria.withOrOperator();
+    criteria.withSample().withSpace().withCodes().thatIn(spaces);
+    criteria.withExperiment().withProject().withSpace().withCodes().thatIn(spaces);
+    new PagedSearch<>((from, count) -> {
+      options.from(from);
+      options.count(count);
+      return openBIS.searchDataSets(criteria, options);
+    }, searchPageSize).forEach(consumer);
+  }
+
+  /**
+   * Counts experiments by space and type. Only one page of experiments is held in memory.
+   */
+  public Map<String, Map<String, Integer>> countExperimentsByTypeAndSpace(List<String> spaces) {
+    Map<String, Map<String, int[]>> counters = new HashMap<>();
+    forEachExperimentInSpaces(spaces, exp -> countByTypeAndSpace(counters,
+        exp.getProject().getSpace().getCode(), exp.getType().getCode()));
+    return toCounts(counters);
+  }
+
+  /**
+   * Counts samples by space and type. Only one page of samples is held in memory.
+   */
+  public Map<String, Map<String, Integer>> countSamplesByTypeAndSpace(List<String> spaces) {
+    Map<String, Map<String, int[]>> counters = new HashMap<>();
+    forEachSampleInSpaces(spaces, sample -> countByTypeAndSpace(counters,
+        sample.getSpace().getCode(), sample.getType().getCode()));
+    return toCounts(counters);
+  }
+
+  /**
+   * Counts datasets by space and type. Only one page of datasets is held in memory.
+   */
+  public Map<String, Map<String, Integer>> countDatasetsByTypeAndSpace(List<String> spaces) {
+    Map<String, Map<String, int[]>> counters = new HashMap<>();
+    forEachDatasetInSpaces(spaces, dataset -> countByTypeAndSpace(counters,
+        getSpaceFromSampleOrExperiment(dataset), dataset.getType().getCode()));
+    return toCounts(counters);
+  }
+
+  private static void countByTypeAndSpace(Map<String, Map<String, int[]>> counters, String space,
+      String type) {
+    counters.computeIfAbsent(space, s -> new HashMap<>())
+        .computeIfAbsent(type, t -> new int[1])[0]++;
+  }
+
+  private static Map<String, Map<String, Integer>> toCounts(
+      Map<String, Map<String, int[]>> counters) {
+    Map<String, Map<String, Integer>> result = new HashMap<>();
+    counters.forEach((space, types) -> {
+      Map<String, Integer> counts = new HashMap<>();
+      types.forEach((type, counter) -> counts.put(type, counter[0]));
+      result.put(space, counts);
+    });
+    return result;
+  }
+
+  /**
+   * Counts experiments by space and type without fetching any experiment. Only searches returning
+   * the total count are sent to openBIS, see {@link #countTotalsByTypeAndSpace}.
+   */
+  public Map<String, Map<String, Integer>> countExperimentTotalsByTypeAndSpace(
+      List<String> spaces) {
+    List<String> types = listExperimentTypes().stream().map(ExperimentType::getCode)
+        .collect(Collectors.toList());
+    ExperimentFetchOptions countOnly = new ExperimentFetchOptions();
+    countOnly.count(0);
+    return countTotalsByTypeAndSpace(spaces, types, (spacesToCount, type) -> {
+      ExperimentSearchCriteria criteria = new ExperimentSearchCriteria();
+      criteria.withProject().withSpace().withCodes().thatIn(spacesToCount);
+      if (type != null) {
+        criteria.withType().withCode().thatEquals(type);
+      }
+      return openBIS.searchExperiments(criteria, countOnly).getTotalCount();
+    });
+  }
+
+  /**
+   * Counts samples by space and type without fetching any sample. Only searches returning the
+   * total count are sent to openBIS, see {@link #countTotalsByTypeAndSpace}.
+   */
+  public Map<String, Map<String, Integer>> countSampleTotalsByTypeAndSpace(List<String> spaces) {
+    SampleTypesAndMaterials sampleTypes = getSampleTypesWithMaterials();
+    List<String> types = new ArrayList<>();
+    sampleTypes.getSampleTypes().forEach(type -> types.add(type.getCode()));
+    sampleTypes.getSamplesAsMaterials().forEach(type -> types.add(type.getCode()));
+    SampleFetchOptions countOnly = new SampleFetchOptions();
+    countOnly.count(0);
+    return countTotalsByTypeAndSpace(spaces, types, (spacesToCount, type) -> {
+      SampleSearchCriteria criteria = new SampleSearchCriteria();
+      criteria.withSpace().withCodes().thatIn(spacesToCount);
+      if (type != null) {
+        criteria.withType().withCode().thatEquals(type);
+      }
+      return openBIS.searchSamples(criteria, countOnly).getTotalCount();
+    });
+  }
+
+  /**
+   * Counts datasets by space and type without fetching any dataset. Only searches returning the
+   * total count are sent to openBIS, see {@link #countTotalsByTypeAndSpace}. Datasets are counted
+   * for a space if their sample or experiment is part of it.
+   */
+  public Map<String, Map<String, Integer>> countDatasetTotalsByTypeAndSpace(List<String> spaces) {
+    List<String> types = listDatasetTypes().stream().map(DataSetType::getCode)
+        .collect(Collectors.toList());
+    DataSetFetchOptions countOnly = new DataSetFetchOptions();
+    countOnly.count(0);
+    return countTotalsByTypeAndSpace(spaces, types, (spacesToCount, type) -> {
+      DataSetSearchCriteria criteria = new DataSetSearchCriteria();
+      criteria.withAndOperator();
+      if (type != null) {
+        criteria.withType().withCode().thatEquals(type);
+      }
+      DataSetSearchCriteria inSpaces = criteria.withSubcriteria().withOrOperator();
+      inSpaces.withSample().withSpace().withCodes().thatIn(spacesToCount);
+      inSpaces.withExperiment().withProject().withSpace().withCodes().thatIn(spacesToCount);
+      return openBIS.searchDataSets(criteria, countOnly).getTotalCount();
+    });
+  }
+
+  /**
+   * Counts objects by space and type using count-only searches, which are sent at the same time
+   * by openbis_count_threads workers. First, each type is counted over all spaces and each space
+   * over all types. Types and spaces without objects are left out, so single counts by space and
+   * type are only requested for the remaining combinations. If only one space or type remains, its
+   * totals are used directly.
+   * @param count returns the number of objects of a type (any type, if null) in the given spaces
+   * @return the number of objects by space and type, leaving out types without objects
+   */
+  private Map<String, Map<String, Integer>> countTotalsByTypeAndSpace(List<String> spaces,
+      List<String> types, BiFunction<List<String>, String, Integer> count) {
+    Map<String, Map<String, Integer>> result = new HashMap<>();
+    if (spaces.isEmpty() || types.isEmpty()) {
+      return result;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(countThreads);
+    try {
+      Map<String, CompletableFuture<Integer>> typeTotals = new LinkedHashMap<>();
+      for (String type : types) {
+        typeTotals.put(type, CompletableFuture.supplyAsync(() -> count.apply(spaces, type),
+            executor));
+      }
+      Map<String, CompletableFuture<Integer>> spaceTotals = new LinkedHashMap<>();
+      if (spaces.size() > 1) {
+        for (String space : spaces) {
+          spaceTotals.put(space, CompletableFuture.supplyAsync(
+              () -> count.apply(Collections.singletonList(space), null), executor));
+        }
+      }
+      List<String> usedTypes = new ArrayList<>();
+      typeTotals.forEach((type, total) -> {
+        if (total.join() > 0) {
+          usedTypes.add(type);
+        }
+      });
+      List<String> usedSpaces = new ArrayList<>();
+      spaceTotals.forEach((space, total) -> {
+        if (total.join() > 0) {
+          usedSpaces.add(space);
+        }
+      });
+      if (spaces.size() == 1 || usedSpaces.size() == 1) {
+        String space = spaces.size() == 1 ? spaces.get(0) : usedSpaces.get(0);
+        usedTypes.forEach(type -> addTotal(result, space, type, typeTotals.get(type).join()));
+        return result;
+      }
+      if (usedTypes.size() == 1) {
+        String type = usedTypes.get(0);
+        usedSpaces.forEach(space -> addTotal(result, space, type, spaceTotals.get(space).join()));
+        return result;
+      }
+      Map<Pair<String, String>, CompletableFuture<Integer>> totals = new LinkedHashMap<>();
+      for (String space : usedSpaces) {
+        for (String type : usedTypes) {
+          totals.put(Pair.of(space, type), CompletableFuture.supplyAsync(
+              () -> count.apply(Collections.singletonList(space), type), executor));
+        }
+      }
+      totals.forEach((spaceAndType, total) ->
+          addTotal(result, spaceAndType.getLeft(), spaceAndType.getRight(), total.join()));
+      return result;
+    } catch (CompletionException e) {
+      throw new RuntimeException("Objects could not be counted in openBIS.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void addTotal(Map<String, Map<String, Integer>> counts, String space,
+      String type, int total) {
+    if (total > 0) {
+      counts.computeIfAbsent(space, s -> new HashMap<>()).put(type, total);
+    }
+  }
+
   private String getSpaceFromSampleOrExperiment(DataSet d) {
     try {
       if (d.getSample() != null) {
@@ -406,25 +832,6 @@ public class OpenbisConnector {
     return "NO SPACE";
   }
 
-  private List<Sample> getSamplesWithAncestorsOfExperiment(ExperimentIdentifier experimentId) {
-    int numberOfFetchedLevels = 10;
-    SampleFetchOptions previousLevel = null;
-    for(int i = 0; i < numberOfFetchedLevels; i++) {
-      SampleFetchOptions withAncestors = new SampleFetchOptions();
-      withAncestors.withProperties();
-      withAncestors.withType();
-      if (previousLevel != null) {
-        withAncestors.withParentsUsing(previousLevel);
-      }
-      previousLevel = withAncestors;
-    }
-
-    SampleSearchCriteria criteria = new SampleSearchCriteria();
-    criteria.withExperiment().withId().thatEquals(experimentId);
-
-    return openBIS.searchSamples(criteria, previousLevel).getObjects();
-  }
-
   public List<DataSet> findDataSets(List<String> codes) {
     if (codes.isEmpty()) {
       return new ArrayList<>();
@@ -458,6 +865,11 @@ public class OpenbisConnector {
   }
 
   public OpenbisExperimentWithDescendants getExperimentWithDescendants(String experimentID) {
+    return withDescendants(searchExperimentWithDescendants(experimentID).orElseThrow(() ->
+        new RuntimeException("Experiment " + experimentID + " was not found in openBIS.")));
+  }
+
+  private Optional<Experiment> searchExperimentWithDescendants(String experimentID) {
     ExperimentSearchCriteria criteria = new ExperimentSearchCriteria();
     criteria.withIdentifier().thatEquals(experimentID);
 
@@ -477,12 +889,11 @@ public class OpenbisConnector {
     fetchOptions.withDataSetsUsing(dataSetFetchOptions);
     fetchOptions.withSamplesUsing(sampleFetchOptions);
 
-    Experiment experiment = openBIS.searchExperiments(criteria, fetchOptions).getObjects().get(0);
+    return openBIS.searchExperiments(criteria, fetchOptions).getObjects().stream().findFirst();
+  }
 
-    Map<String, List<DataSetFile>> datasetCodeToFiles = new HashMap<>();
-    for(DataSet dataset : experiment.getDataSets()) {
-      datasetCodeToFiles.put(dataset.getPermId().getPermId(), getDatasetFiles(dataset));
-    }
+  private OpenbisExperimentWithDescendants withDescendants(Experiment experiment) {
+    Map<String, List<DataSetFile>> datasetCodeToFiles = getDatasetFiles(experiment.getDataSets());
 
     return new OpenbisExperimentWithDescendants(experiment, experiment.getSamples(),
         experiment.getDataSets()
@@ -501,39 +912,91 @@ public class OpenbisConnector {
     return result.getObjects();
   }
 
+  /**
+   * Lists the files of many datasets. Datasets are queried in chunks of the configured size, with
+   * chunks being sent to the datastore server in parallel.
+   * @param datasets the datasets whose files should be listed
+   * @return files by dataset permId, containing an (empty) entry for each provided dataset
+   */
+  public Map<String, List<DataSetFile>> getDatasetFiles(Collection<DataSet> datasets) {
+    Map<String, List<DataSetFile>> datasetCodeToFiles = new HashMap<>();
+    List<String> codes = new ArrayList<>();
+    for (DataSet dataset : datasets) {
+      datasetCodeToFiles.put(dataset.getPermId().getPermId(), new ArrayList<>());
+      codes.add(dataset.getCode());
+    }
+    if (codes.isEmpty()) {
+      return datasetCodeToFiles;
+    }
+    List<List<String>> chunks = new ArrayList<>();
+    for (int i = 0; i < codes.size(); i += fileListingChunkSize) {
+      chunks.add(codes.subList(i, Math.min(i + fileListingChunkSize, codes.size())));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(fileListingThreads, chunks.size()));
+    try {
+      List<CompletableFuture<List<DataSetFile>>> requests = new ArrayList<>();
+      for (List<String> chunk : chunks) {
+        requests.add(CompletableFuture.supplyAsync(() -> searchFilesOfDatasets(chunk), executor));
+      }
+      for (CompletableFuture<List<DataSetFile>> request : requests) {
+        for (DataSetFile file : request.join()) {
+          datasetCodeToFiles.computeIfAbsent(file.getDataSetPermId().getPermId(),
+              code -> new ArrayList<>()).add(file);
+        }
+      }
+    } catch (CompletionException e) {
+      throw new RuntimeException("Files of datasets could not be listed.", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+    return datasetCodeToFiles;
+  }
+
+  private List<DataSetFile> searchFilesOfDatasets(List<String> datasetCodes) {
+    DataSetFileSearchCriteria criteria = new DataSetFileSearchCriteria();
+    criteria.withDataSet().withCodes().thatIn(datasetCodes);
+
+    return openBIS.searchFiles(criteria, new DataSetFileFetchOptions()).getObjects();
+  }
+
+  public List<ExperimentType> listExperimentTypes() {
+    List<ExperimentType> types = metadataCache.get(EXPERIMENT_TYPES_CACHE_KEY, () ->
+        openBIS.searchExperimentTypes(new ExperimentTypeSearchCriteria(),
+            new ExperimentTypeFetchOptions()).getObjects());
+    return new ArrayList<>(types);
+  }
+
   public List<DataSetType> listDatasetTypes() {
-    DataSetTypeSearchCriteria criteria = new DataSetTypeSearchCriteria();
-    DataSetTypeFetchOptions fetchOptions = new DataSetTypeFetchOptions();
-    fetchOptions.withPropertyAssignments().withPropertyType();
-    fetchOptions.withPropertyAssignments().withEntityType();
-    return openBIS.searchDataSetTypes(criteria, fetchOptions).getObjects();
+    List<DataSetType> types = metadataCache.get(DATASET_TYPES_CACHE_KEY, () -> {
+      DataSetTypeSearchCriteria criteria = new DataSetTypeSearchCriteria();
+      DataSetTypeFetchOptions fetchOptions = new DataSetTypeFetchOptions();
+      fetchOptions.withPropertyAssignments().withPropertyType();
+      fetchOptions.withPropertyAssignments().withEntityType();
+      return openBIS.searchDataSetTypes(criteria, fetchOptions).getObjects();
+    });
+    return new ArrayList<>(types);
   }
 
   public SampleTypesAndMaterials getSampleTypesWithMaterials() {
-    SampleTypeSearchCriteria criteria = new SampleTypeSearchCriteria();
-    SampleTypeFetchOptions typeOptions = new SampleTypeFetchOptions();
-    typeOptions.withPropertyAssignments().withPropertyType();
-    typeOptions.withPropertyAssignments().withEntityType();
-    Set<SampleType> sampleTypes = new HashSet<>();
-    Set<SampleType> sampleTypesAsMaterials = new HashSet<>();
-    for(SampleType type : openBIS.searchSampleTypes(criteria, typeOptions).getObjects()) {
-      /*
-      System.err.println("sample type: "+type.getCode());
-      for(PropertyAssignment assignment : type.getPropertyAssignments()) {
-        if (assignment.getPropertyType().getDataType().name().equals("SAMPLE")) {
-          System.err.println(assignment.getPropertyType().getLabel());
-          System.err.println(assignment.getPropertyType().getDataType().name());
-          System.err.println(assignment.getPropertyType().getCode());
+    SampleTypesAndMaterials types = metadataCache.get(SAMPLE_TYPES_CACHE_KEY, () -> {
+      SampleTypeSearchCriteria criteria = new SampleTypeSearchCriteria();
+      SampleTypeFetchOptions typeOptions = new SampleTypeFetchOptions();
+      typeOptions.withPropertyAssignments().withPropertyType();
+      typeOptions.withPropertyAssignments().withEntityType();
+      Set<SampleType> sampleTypes = new HashSet<>();
+      Set<SampleType> sampleTypesAsMaterials = new HashSet<>();
+      for(SampleType type : openBIS.searchSampleTypes(criteria, typeOptions).getObjects()) {
+        if(type.getCode().startsWith("MATERIAL.")) {
+          sampleTypesAsMaterials.add(type);
+        } else {
+          sampleTypes.add(type);
         }
       }
-       */
-      if(type.getCode().startsWith("MATERIAL.")) {
-        sampleTypesAsMaterials.add(type);
-      } else {
-        sampleTypes.add(type);
-      }
-    }
-    return new SampleTypesAndMaterials(sampleTypes, sampleTypesAsMaterials);
+      return new SampleTypesAndMaterials(sampleTypes, sampleTypesAsMaterials);
+    });
+    return new SampleTypesAndMaterials(new HashSet<>(types.getSampleTypes()),
+        new HashSet<>(types.getSamplesAsMaterials()));
   }
 
   public void createSeekLinks(SeekStructurePostRegistrationInformation postRegInformation) {
@@ -541,24 +1004,27 @@ public class OpenbisConnector {
     //TODO link sample type not implemented?
     final String SAMPLE_TYPE = "EXTERNAL_LINK";
 
-    SampleTypeSearchCriteria criteria = new SampleTypeSearchCriteria();
-    criteria.withCode().thatEquals(SAMPLE_TYPE);
-    SampleTypeFetchOptions typeOptions = new SampleTypeFetchOptions();
-    typeOptions.withPropertyAssignments().withPropertyType();
-    typeOptions.withPropertyAssignments().withEntityType();
-    if(openBIS.searchSampleTypes(criteria, typeOptions).getObjects().isEmpty()) {
+    boolean linkTypeExists = metadataCache.get(LINK_SAMPLE_TYPE_CACHE_KEY, () -> {
+      SampleTypeSearchCriteria criteria = new SampleTypeSearchCriteria();
+      criteria.withCode().thatEquals(SAMPLE_TYPE);
+      SampleTypeFetchOptions typeOptions = new SampleTypeFetchOptions();
+      return !openBIS.searchSampleTypes(criteria, typeOptions).getObjects().isEmpty();
+    });
+    if(!linkTypeExists) {
       System.out.printf(
           "This is where links would be put into openBIS, but EXTERNAL_LINK sample was "
               + "not yet added to openBIS instance.%n");
       return;
     }
 
+    // links are collected first and created in batches, keyed by a description of their target
+    List<Pair<String, SampleCreation>> links = new ArrayList<>();
     if(experimentInfo.isPresent()) {
       ExperimentIdentifier id = new ExperimentIdentifier(experimentInfo.get().getLeft());
       String endpoint = experimentInfo.get().getRight();
       SampleCreation sample = createNewLinkSample(endpoint);
       sample.setExperimentId(id);
-      openBIS.createSamples(Arrays.asList(sample));
+      links.add(Pair.of("experiment " + id, sample));
     }
     Map<String, String> sampleInfos = postRegInformation.getSampleIDsWithEndpoints();
     for(String sampleID : sampleInfos.keySet()) {
@@ -566,8 +1032,105 @@ public class OpenbisConnector {
       String endpoint = sampleInfos.get(sampleID);
       SampleCreation sample = createNewLinkSample(endpoint);
       sample.setParentIds(Arrays.asList(id));
-      openBIS.createSamples(Arrays.asList(sample));
+      links.add(Pair.of("sample " + id, sample));
+    }
+    links.addAll(createDatasetLinkSamples(postRegInformation.getDatasetIDsWithEndpoints()));
+
+    Set<String> existingURLs = findExistingLinkURLs(links.stream()
+        .map(link -> link.getRight().getProperties().get("URL")).collect(Collectors.toList()));
+    if(!existingURLs.isEmpty()) {
+      System.out.printf("Skipping %s links that already exist in openBIS.%n", existingURLs.size());
+      links.removeIf(link -> existingURLs.contains(link.getRight().getProperties().get("URL")));
+    }
+
+    List<String> failures = new ArrayList<>();
+    for (int i = 0; i < links.size(); i += linkBatchSize) {
+      failures.addAll(createLinkSamples(links.subList(i, Math.min(i + linkBatchSize,
+          links.size()))));
+    }
+    System.out.printf("Created %s of %s links to SEEK in openBIS.%n",
+        links.size() - failures.size(), links.size());
+    for(String failure : failures) {
+      System.out.printf("Link could not be created for %s%n", failure);
+    }
+  }
+
+  /**
+   * Datasets can not be parents of samples, so their links are added to the sample of the
+   * dataset or, if there is none, to its experiment.
+   */
+  private List<Pair<String, SampleCreation>> createDatasetLinkSamples(
+      Map<String, Set<String>> datasetIDsWithEndpoints) {
+    List<Pair<String, SampleCreation>> links = new ArrayList<>();
+    if(datasetIDsWithEndpoints.isEmpty()) {
+      return links;
+    }
+    DataSetFetchOptions options = new DataSetFetchOptions();
+    options.withSample();
+    options.withExperiment();
+    List<DataSetPermId> ids = datasetIDsWithEndpoints.keySet().stream().map(DataSetPermId::new)
+        .collect(Collectors.toList());
+    Map<IDataSetId, DataSet> datasets = openBIS.getDataSets(ids, options);
+    for(DataSetPermId id : ids) {
+      DataSet dataset = datasets.get(id);
+      if(dataset == null) {
+        System.out.printf("Dataset %s was not found, its links to SEEK are not stored.%n", id);
+        continue;
+      }
+      for(String endpoint : datasetIDsWithEndpoints.get(id.getPermId())) {
+        SampleCreation sample = createNewLinkSample(endpoint);
+        if(dataset.getSample() != null) {
+          sample.setParentIds(Arrays.asList(dataset.getSample().getPermId()));
+        } else {
+          sample.setExperimentId(dataset.getExperiment().getIdentifier());
+        }
+        links.add(Pair.of("dataset " + id, sample));
+      }
+    }
+    return links;
+  }
+
+  /**
+   * Finds which of the provided URLs are already stored in EXTERNAL_LINK samples, so re-runs
+   * of a transfer do not create duplicate links.
+   */
+  private Set<String> findExistingLinkURLs(List<String> urls) {
+    Set<String> existing = new HashSet<>();
+    SampleFetchOptions options = new SampleFetchOptions();
+    options.withProperties();
+    for (int i = 0; i < urls.size(); i += linkBatchSize) {
+      SampleSearchCriteria criteria = new SampleSearchCriteria();
+      criteria.withType().withCode().thatEquals("EXTERNAL_LINK");
+      SampleSearchCriteria urlCriteria = criteria.withSubcriteria().withOrOperator();
+      for(String url : urls.subList(i, Math.min(i + linkBatchSize, urls.size()))) {
+        urlCriteria.withProperty("URL").thatEquals(url);
+      }
+      for(Sample link : openBIS.searchSamples(criteria, options).getObjects()) {
+        existing.add(link.getProperty("URL"));
+      }
+    }
+    return existing;
+  }
+
+  /**
+   * Creates one batch of link samples in a single transaction. If the batch fails, its links are
+   * created one by one, so only the failing links are lost and can be reported.
+   * @return descriptions of the targets of links that could not be created
+   */
+  private List<String> createLinkSamples(List<Pair<String, SampleCreation>> batch) {
+    try {
+      openBIS.createSamples(batch.stream().map(Pair::getRight).collect(Collectors.toList()));
+      return new ArrayList<>();
+    } catch (RuntimeException e) {
+      if(batch.size() == 1) {
+        return Arrays.asList(batch.get(0).getLeft() + ": " + e.getMessage());
+      }
     }
+    List<String> failures = new ArrayList<>();
+    for(Pair<String, SampleCreation> link : batch) {
+      failures.addAll(createLinkSamples(Arrays.asList(link)));
+    }
+    return failures;
   }
 
   private SampleCreation createNewLinkSample(String endpoint) {
@@ -583,80 +1146,164 @@ public class OpenbisConnector {
     return sample;
   }
 
+  /**
+   * Stores the endpoints of created or updated SEEK objects in link properties of the respective
+   * openBIS experiment, samples and datasets. Current values are fetched in one request per batch
+   * of each entity kind, changes are computed locally and only entities whose properties change are
+   * updated, again in one request per batch.
+   * Not called by any command yet: the link property codes above are placeholders, so existing
+   * metadata would be overwritten. SEEK links are currently stored by createSeekLinks.
+   */
   public void updateSeekLinks(SeekStructurePostRegistrationInformation postRegistrationInformation) {
+    Map<ExperimentIdentifier, Map<String, String>> experimentProperties = new HashMap<>();
+    postRegistrationInformation.getExperimentIDWithEndpoint().ifPresent(experiment ->
+        experimentProperties.put(new ExperimentIdentifier(experiment.getLeft()),
+            Map.of(EXPERIMENT_LINK_PROPERTY, experiment.getRight())));
+
+    Map<SampleIdentifier, Map<String, String>> sampleProperties = new HashMap<>();
+    postRegistrationInformation.getSampleIDsWithEndpoints().forEach((sampleID, endpoint) ->
+        sampleProperties.put(new SampleIdentifier(sampleID),
+            Map.of(SAMPLE_LINK_PROPERTY, endpoint)));
+
+    Map<DataSetPermId, Map<String, String>> datasetProperties = new HashMap<>();
+    postRegistrationInformation.getDatasetIDsWithEndpoints().forEach((datasetID, endpoints) ->
+        datasetProperties.put(new DataSetPermId(datasetID),
+            Map.of(DATASET_LINK_PROPERTY, String.join(", ", endpoints))));
+
+    int updated = updateExperimentProperties(experimentProperties, false)
+        + updateSampleProperties(sampleProperties, false)
+        + updateDatasetProperties(datasetProperties, false);
+    System.out.printf("Updated SEEK links of %s openBIS objects.%n", updated);
   }
 
-  private void updateExperimentProperties(ExperimentIdentifier id, Map<String, String> properties,
+  /**
+   * Computes which properties of an entity change.
+   * @param newProperties property codes and the values to store
+   * @param oldValues provides the current value of a property
+   * @param overwrite if true, current values are replaced, otherwise new values are appended to
+   *                  them, unless they are already contained
+   * @return the properties whose values change
+   */
+  private Map<String, String> changedProperties(Map<String, String> newProperties,
+      Function<String, String> oldValues, boolean overwrite) {
+    Map<String, String> changes = new HashMap<>();
+    for (String property : newProperties.keySet()) {
+      String newValue = newProperties.get(property);
+      String oldValue = oldValues.apply(property);
+      if (oldValue == null || oldValue.isEmpty() || overwrite) {
+        if (!newValue.equals(oldValue)) {
+          changes.put(property, newValue);
+        }
+      } else if (!newValue.isBlank()
+          && !Arrays.asList(oldValue.split(", ")).containsAll(Arrays.asList(newValue.split(", ")))) {
+        changes.put(property, oldValue + ", " + newValue);
+      }
+    }
+    return changes;
+  }
+
+  private int updateExperimentProperties(Map<ExperimentIdentifier, Map<String, String>> properties,
       boolean overwrite) {
-    ExperimentUpdate update = new ExperimentUpdate();
-    update.setExperimentId(id);
-    if(overwrite) {
-      update.setProperties(properties);
-    } else {
-      ExperimentFetchOptions options = new ExperimentFetchOptions();
-      options.withProperties();
-      Experiment oldExp = openBIS.getExperiments(Arrays.asList(id), options).get(id);
-      for(String property : properties.keySet()) {
-        String newValue = properties.get(property);
-        String oldValue = oldExp.getProperty(property);
-        if(oldValue == null || oldValue.isEmpty() || oldValue.equals(newValue)) {
-          update.setProperty(property, newValue);
-        } else if(!newValue.isBlank()) {
-          update.setProperty(property, oldValue+", "+newValue);//TODO this can be changed to any other strategy
+    List<ExperimentIdentifier> ids = new ArrayList<>(properties.keySet());
+    ExperimentFetchOptions options = new ExperimentFetchOptions();
+    options.withProperties();
+    int updated = 0;
+    for (int i = 0; i < ids.size(); i += linkBatchSize) {
+      List<ExperimentIdentifier> batch = ids.subList(i, Math.min(i + linkBatchSize, ids.size()));
+      Map<IExperimentId, Experiment> experiments = openBIS.getExperiments(batch, options);
+      List<ExperimentUpdate> updates = new ArrayList<>();
+      for (ExperimentIdentifier id : batch) {
+        Experiment oldExp = experiments.get(id);
+        if (oldExp == null) {
+          throw new RuntimeException("Experiment " + id + " was not found in openBIS.");
         }
+        Map<String, String> changes = changedProperties(properties.get(id), oldExp::getProperty,
+            overwrite);
+        if (!changes.isEmpty()) {
+          ExperimentUpdate update = new ExperimentUpdate();
+          update.setExperimentId(id);
+          update.setProperties(changes);
+          updates.add(update);
+        }
+      }
+      if (!updates.isEmpty()) {
+        openBIS.updateExperiments(updates);
       }
+      updated += updates.size();
     }
-    openBIS.updateExperiments(Arrays.asList(update));
+    return updated;
   }
 
-  private void updateSampleProperties(SampleIdentifier id, Map<String, String> properties,
+  private int updateSampleProperties(Map<SampleIdentifier, Map<String, String>> properties,
       boolean overwrite) {
-    SampleUpdate update = new SampleUpdate();
-    update.setSampleId(id);
-    if(overwrite) {
-      update.setProperties(properties);
-    } else {
-      SampleFetchOptions options = new SampleFetchOptions();
-      options.withProperties();
-      Sample oldSample = openBIS.getSamples(Arrays.asList(id), options).get(id);
-      for(String property : properties.keySet()) {
-        String newValue = properties.get(property);
-        String oldValue = oldSample.getProperty(property);
-        if(oldValue == null || oldValue.isEmpty() || oldValue.equals(newValue)) {
-          update.setProperty(property, newValue);
-        } else {
-          update.setProperty(property, oldValue+", "+newValue);//TODO this can be changed to any other strategy
+    List<SampleIdentifier> ids = new ArrayList<>(properties.keySet());
+    SampleFetchOptions options = new SampleFetchOptions();
+    options.withProperties();
+    int updated = 0;
+    for (int i = 0; i < ids.size(); i += linkBatchSize) {
+      List<SampleIdentifier> batch = ids.subList(i, Math.min(i + linkBatchSize, ids.size()));
+      Map<ISampleId, Sample> samples = openBIS.getSamples(batch, options);
+      List<SampleUpdate> updates = new ArrayList<>();
+      for (SampleIdentifier id : batch) {
+        Sample oldSample = samples.get(id);
+        if (oldSample == null) {
+          throw new RuntimeException("Sample " + id + " was not found in openBIS.");
         }
+        Map<String, String> changes = changedProperties(properties.get(id),
+            oldSample::getProperty, overwrite);
+        if (!changes.isEmpty()) {
+          SampleUpdate update = new SampleUpdate();
+          update.setSampleId(id);
+          update.setProperties(changes);
+          updates.add(update);
+        }
+      }
+      if (!updates.isEmpty()) {
+        openBIS.updateSamples(updates);
       }
+      updated += updates.size();
     }
-    openBIS.updateSamples(Arrays.asList(update));
+    return updated;
   }
 
-  private void updateDatasetProperties(DataSetPermId id, Map<String, String> properties,
+  private int updateDatasetProperties(Map<DataSetPermId, Map<String, String>> properties,
       boolean overwrite) {
-    DataSetUpdate update = new DataSetUpdate();
-    update.setDataSetId(id);
-    if (overwrite) {
-      update.setProperties(properties);
-    } else {
-      DataSetFetchOptions options = new DataSetFetchOptions();
-      options.withProperties();
-      DataSet oldDataset = openBIS.getDataSets(Arrays.asList(id), options).get(id);
-      for (String property : properties.keySet()) {
-        String newValue = properties.get(property);
-        String oldValue = oldDataset.getProperty(property);
-        if (oldValue == null || oldValue.isEmpty() || oldValue.equals(newValue)) {
-          update.setProperty(property, newValue);
-        } else {
-          update.setProperty(property,
-              oldValue + ", " + newValue);//TODO this can be changed to any other strategy
+    List<DataSetPermId> ids = new ArrayList<>(properties.keySet());
+    DataSetFetchOptions options = new DataSetFetchOptions();
+    options.withProperties();
+    int updated = 0;
+    for (int i = 0; i < ids.size(); i += linkBatchSize) {
+      List<DataSetPermId> batch = ids.subList(i, Math.min(i + linkBatchSize, ids.size()));
+      Map<IDataSetId, DataSet> datasets = openBIS.getDataSets(batch, options);
+      List<DataSetUpdate> updates = new ArrayList<>();
+      for (DataSetPermId id : batch) {
+        DataSet oldDataset = datasets.get(id);
+        if (oldDataset == null) {
+          throw new RuntimeException("Dataset " + id + " was not found in openBIS.");
         }
+        Map<String, String> changes = changedProperties(properties.get(id),
+            oldDataset::getProperty, overwrite);
+        if (!changes.isEmpty()) {
+          DataSetUpdate update = new DataSetUpdate();
+          update.setDataSetId(id);
+          update.setProperties(changes);
+          updates.add(update);
+        }
+      }
+      if (!updates.isEmpty()) {
+        openBIS.updateDataSets(updates);
       }
+      updated += updates.size();
     }
-    openBIS.updateDataSets(Arrays.asList(update));
+    return updated;
   }
 
   public OpenbisExperimentWithDescendants getExperimentAndDataFromSample(String sampleID) {
+    return withExperimentAndData(searchSampleWithExperimentAndData(sampleID).orElseThrow(() ->
+        new RuntimeException("Sample " + sampleID + " was not found in openBIS.")));
+  }
+
+  private Optional<Sample> searchSampleWithExperimentAndData(String sampleID) {
     SampleSearchCriteria criteria = new SampleSearchCriteria();
     criteria.withIdentifier().thatEquals(sampleID);
 
@@ -676,20 +1323,25 @@ public class OpenbisConnector {
     expFetchOptions.withProperties();
     fetchOptions.withExperimentUsing(expFetchOptions);
 
-    List<Sample> samples = openBIS.searchSamples(criteria, fetchOptions).getObjects();
-    Sample sample = samples.get(0);
+    return openBIS.searchSamples(criteria, fetchOptions).getObjects().stream().findFirst();
+  }
 
+  private OpenbisExperimentWithDescendants withExperimentAndData(Sample sample) {
     List<DatasetWithProperties> datasets = new ArrayList<>();
-    Map<String, List<DataSetFile>> datasetCodeToFiles = new HashMap<>();
     for (DataSet dataset : sample.getDataSets()) {
       datasets.add(new DatasetWithProperties(dataset));
-      datasetCodeToFiles.put(dataset.getPermId().getPermId(), getDatasetFiles(dataset));
     }
-    return new OpenbisExperimentWithDescendants(sample.getExperiment(), samples, datasets,
-        datasetCodeToFiles);
+    Map<String, List<DataSetFile>> datasetCodeToFiles = getDatasetFiles(sample.getDataSets());
+    return new OpenbisExperimentWithDescendants(sample.getExperiment(),
+        new ArrayList<>(Arrays.asList(sample)), datasets, datasetCodeToFiles);
   }
 
   public OpenbisExperimentWithDescendants getExperimentStructureFromDataset(String datasetID) {
+    return withExperimentStructure(searchDatasetWithExperimentStructure(datasetID).orElseThrow(() ->
+        new RuntimeException("Dataset " + datasetID + " was not found in openBIS.")));
+  }
+
+  private Optional<DataSet> searchDatasetWithExperimentStructure(String datasetID) {
     DataSetSearchCriteria criteria = new DataSetSearchCriteria();
     criteria.withPermId().thatEquals(datasetID);
 
@@ -708,8 +1360,10 @@ public class OpenbisConnector {
     dataSetFetchOptions.withSampleUsing(sampleFetchOptions);
     dataSetFetchOptions.withExperimentUsing(expFetchOptions);
 
-    DataSet dataset = openBIS.searchDataSets(criteria, dataSetFetchOptions).getObjects().get(0);
+    return openBIS.searchDataSets(criteria, dataSetFetchOptions).getObjects().stream().findFirst();
+  }
 
+  private OpenbisExperimentWithDescendants withExperimentStructure(DataSet dataset) {
     List<Sample> samples = new ArrayList<>();
     if(dataset.getSample() != null) {
       samples.add(dataset.getSample());
@@ -721,9 +1375,64 @@ public class OpenbisConnector {
     datasetCodeToFiles.put(dataset.getPermId().getPermId(), getDatasetFiles(dataset));
 
     if(dataset.getExperiment() == null) {
-      System.err.println("No experiment found for dataset "+datasetID);
+      System.err.println("No experiment found for dataset "+dataset.getPermId().getPermId());
     }
     return new OpenbisExperimentWithDescendants(dataset.getExperiment(), samples, datasets,
         datasetCodeToFiles);
   }
+
+  /**
+   * Finds the experiment, sample or dataset with the provided id and collects it with its
+   * experiment and descendants, as needed for a transfer. The id is classified by its shape
+   * where possible: dataset codes can not be experiments or samples, identifiers with one or two
+   * parts (/SAMPLE for shared samples, /SPACE/SAMPLE) can only be samples and those with three
+   * parts can be experiments or project samples. The remaining candidates are searched at the
+   * same time, using the fetch options of the descendant fetch, so the found object does not need
+   * to be fetched again. Experiments take precedence over samples and samples over datasets.
+   * @param objectID the identifier of an experiment or sample, or the code of a dataset
+   * @return the node type the object is transferred as, and its structure, if it was found
+   */
+  public Optional<Pair<NodeType, OpenbisExperimentWithDescendants>> resolveWithDescendants(
+      String objectID) {
+    boolean couldBeExperiment = false;
+    boolean couldBeSample = false;
+    boolean couldBeDataset = false;
+    if (datasetCodePattern.matcher(objectID).matches()) {
+      couldBeDataset = true;
+    } else if (objectID.startsWith("/")) {
+      int parts = objectID.substring(1).split("/").length;
+      couldBeExperiment = parts == 3;
+      couldBeSample = parts >= 1 && parts <= 3;
+    } else {
+      couldBeDataset = true;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      CompletableFuture<Optional<Experiment>> experiment = couldBeExperiment
+          ? CompletableFuture.supplyAsync(() -> searchExperimentWithDescendants(objectID), executor)
+          : CompletableFuture.completedFuture(Optional.empty());
+      CompletableFuture<Optional<Sample>> sample = couldBeSample
+          ? CompletableFuture.supplyAsync(() -> searchSampleWithExperimentAndData(objectID),
+          executor)
+          : CompletableFuture.completedFuture(Optional.empty());
+      CompletableFuture<Optional<DataSet>> dataset = couldBeDataset
+          ? CompletableFuture.supplyAsync(() -> searchDatasetWithExperimentStructure(objectID),
+          executor)
+          : CompletableFuture.completedFuture(Optional.empty());
+
+      if (experiment.join().isPresent()) {
+        return Optional.of(Pair.of(NodeType.ASSAY, withDescendants(experiment.join().get())));
+      }
+      if (sample.join().isPresent()) {
+        return Optional.of(Pair.of(NodeType.SAMPLE, withExperimentAndData(sample.join().get())));
+      }
+      return dataset.join().map(found -> Pair.of(NodeType.ASSET, withExperimentStructure(found)));
+    } catch (CompletionException e) {
+      throw new RuntimeException("Searching for " + objectID + " in openBIS failed.",
+          e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
 }
@@ -0,0 +1,63 @@
+package life.qbic.model.download;
+
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.common.search.SearchResult;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the results of an openBIS search page by page, so only one page of objects is held
+ * in memory at a time. The query is called with the index of the first object and the page size,
+ * which should be set as from/count of its fetch options. The fetch options must sort the results
+ * (e.g. by permId), otherwise pages may overlap or miss objects.
+ */
+public class PagedSearch<T> implements Iterable<T> {
+
+  @FunctionalInterface
+  public interface PageQuery<T> {
+
+    SearchResult<T> fetch(int from, int count);
+  }
+
+  private final PageQuery<T> query;
+  private final int pageSize;
+
+  public PagedSearch(PageQuery<T> query, int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive, was " + pageSize);
+    }
+    this.query = query;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<>() {
+
+      private List<T> page = List.of();
+      private int positionInPage = 0;
+      private int nextFrom = 0;
+      private boolean lastPageFetched = false;
+
+      @Override
+      public boolean hasNext() {
+        while (positionInPage >= page.size() && !lastPageFetched) {
+          SearchResult<T> result = query.fetch(nextFrom, pageSize);
+          page = result.getObjects();
+          positionInPage = 0;
+          nextFrom += page.size();
+          lastPageFetched = page.size() < pageSize || nextFrom >= result.getTotalCount();
+        }
+        return positionInPage < page.size();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return page.get(positionInPage++);
+      }
+    };
+  }
+}
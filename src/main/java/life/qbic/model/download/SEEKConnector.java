@@ -7,26 +7,36 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import javax.xml.parsers.ParserConfigurationException;
+import life.qbic.App;
+import life.qbic.model.AssayContentIndex;
 import life.qbic.model.AssetInformation;
 import life.qbic.model.OpenbisSeekTranslator;
 import life.qbic.model.SampleInformation;
@@ -46,19 +56,35 @@ import org.xml.sax.SAXException;
 public class SEEKConnector {
 
   private static final Logger LOG = LogManager.getLogger(SEEKConnector.class);
+  // thread-safe once configured, shared to avoid creating a mapper for every response
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
   private String apiURL;
   private byte[] credentials;
+  private final SEEKHttpTransport transport;
   private OpenbisSeekTranslator translator;
   private final String DEFAULT_PROJECT_ID;
   private String currentStudy;
+  private Set<String> assayIDsOfCurrentStudy;
   private final List<String> ASSET_TYPES = new ArrayList<>(Arrays.asList("data_files", "models",
       "sops", "documents", "publications"));
+  private boolean continueOnFailure = false;
+  private static final long READINESS_INITIAL_DELAY_MILLIS = 50;
+  private static final long READINESS_MAX_DELAY_MILLIS = 2000;
+  private static final long READINESS_MAX_WAIT_MILLIS = 60000;
 
   public SEEKConnector(String seekURL, byte[] httpCredentials, String openBISBaseURL,
       String defaultProjectTitle) throws URISyntaxException, IOException,
       InterruptedException, ParserConfigurationException, SAXException {
+    this(seekURL, httpCredentials, openBISBaseURL, defaultProjectTitle,
+        SEEKHttpTransport.fromConfig(App.configProperties));
+  }
+
+  public SEEKConnector(String seekURL, byte[] httpCredentials, String openBISBaseURL,
+      String defaultProjectTitle, SEEKHttpTransport transport) throws URISyntaxException,
+      IOException, InterruptedException, ParserConfigurationException, SAXException {
     this.apiURL = seekURL;
     this.credentials = httpCredentials;
+    this.transport = transport;
     Optional<String> projectID = getProjectWithTitle(defaultProjectTitle);
     if (projectID.isEmpty()) {
       throw new RuntimeException("Failed to find project with title: " + defaultProjectTitle + ". "
@@ -74,12 +100,60 @@ public class SEEKConnector {
         investigationTitle));
   }
 
+  /**
+   * Sets whether the remaining samples or assets are created if some of them can not be created.
+   * By default, the first failure aborts the creation. Otherwise, failures are collected in the
+   * post-registration information.
+   */
+  public void setContinueOnFailure(boolean continueOnFailure) {
+    this.continueOnFailure = continueOnFailure;
+  }
+
   public void setDefaultStudy(String studyTitle)
       throws URISyntaxException, IOException, InterruptedException {
     this.currentStudy = searchNodeWithTitle("studies", studyTitle);
+    this.assayIDsOfCurrentStudy = null;
     translator.setDefaultStudy(currentStudy);
   }
 
+  /**
+   * @param assayID the SEEK id of an assay
+   * @return true, if the assay is part of the current study
+   */
+  public boolean isAssayInCurrentStudy(String assayID)
+      throws URISyntaxException, IOException, InterruptedException {
+    return currentStudy != null && getAssayIDsOfCurrentStudy().contains(assayID);
+  }
+
+  /**
+   * Parses the id of a SEEK object from its endpoint, e.g. as stored in openBIS links
+   * @param type the SEEK type of the object, e.g. assays or samples
+   * @param endpoint the endpoint of the object
+   * @return the id, if the endpoint points to an object of the provided type on this SEEK instance
+   */
+  public Optional<String> idFromEndpoint(String type, String endpoint) {
+    String prefix = apiURL+"/"+type+"/";
+    if(endpoint.startsWith(prefix) && !endpoint.substring(prefix.length()).contains("/")) {
+      return Optional.of(endpoint.substring(prefix.length()));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Lists the assays of the current study via the study's relationships. The list is fetched once
+   * and kept for the lifetime of the connector, assays added by this connector are added to it.
+   */
+  private Set<String> getAssayIDsOfCurrentStudy()
+      throws URISyntaxException, IOException, InterruptedException {
+    if (assayIDsOfCurrentStudy == null) {
+      Map<String, List<String>> relatedIDs = sendAndRead(
+          buildAuthorizedGETRequest(apiURL+"/studies/"+currentStudy),
+          SeekResponseReader::readRelationshipIDs);
+      assayIDsOfCurrentStudy = new HashSet<>(relatedIDs.getOrDefault("assays", List.of()));
+    }
+    return assayIDsOfCurrentStudy;
+  }
+
   /**
    * Lists projects and returns the optional identifier of the one matching the provided ID.
    * Necessary because project search does not seem to work.
@@ -89,27 +163,16 @@ public class SEEKConnector {
   private Optional<String> getProjectWithTitle(String projectTitle)
       throws IOException, InterruptedException, URISyntaxException {
     String endpoint = apiURL+"/projects/";
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
-    if(response.statusCode() == 200) {
-      JsonNode rootNode = new ObjectMapper().readTree(response.body());
-      JsonNode hits = rootNode.path("data");
-      for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-        JsonNode hit = it.next();
-        String id = hit.get("id").asText();
-        String title = hit.get("attributes").get("title").asText();
-        if(title.equals(projectTitle)) {
-          return Optional.of(id);
-        }
+    for (Pair<String, String> project : sendAndRead(request,
+        SeekResponseReader::readIDsAndTitles)) {
+      if(projectTitle.equals(project.getRight())) {
+        return Optional.of(project.getLeft());
       }
-    } else {
-      throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
     return Optional.empty();
   }
@@ -118,14 +181,13 @@ public class SEEKConnector {
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/studies";
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, assay.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, assay.toJsonBytes()), BodyHandlers.ofString());
 
     if(response.statusCode()!=200) {
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
+    JsonNode rootNode = JSON_MAPPER.readTree(response.body());
     JsonNode idNode = rootNode.path("data").path("id");
 
     return idNode.asText();
@@ -135,16 +197,20 @@ public class SEEKConnector {
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/assays";
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, assay.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, assay.toJsonBytes()), BodyHandlers.ofString());
 
     if(response.statusCode()!=200) {
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
+    JsonNode rootNode = JSON_MAPPER.readTree(response.body());
     JsonNode idNode = rootNode.path("data").path("id");
 
+    String studyID = rootNode.path("data").path("relationships").path("study").path("data")
+        .path("id").asText();
+    if (assayIDsOfCurrentStudy != null && studyID.equals(currentStudy)) {
+      assayIDsOfCurrentStudy.add(idNode.asText());
+    }
     return idNode.asText();
   }
 
@@ -152,60 +218,53 @@ public class SEEKConnector {
       throws IOException, URISyntaxException, InterruptedException, IOException {
     String endpoint = apiURL+"/studies";
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, study.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, study.toJsonBytes()), BodyHandlers.ofString());
 
     if(response.statusCode()!=200) {
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
+    JsonNode rootNode = JSON_MAPPER.readTree(response.body());
     JsonNode idNode = rootNode.path("data").path("id");
 
     return idNode.asText();
   }
 
-  private HttpRequest buildAuthorizedPATCHRequest(String endpoint, String body) throws URISyntaxException {
-    return HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+  private HttpRequest buildAuthorizedPATCHRequest(String endpoint, byte[] body) throws URISyntaxException {
+    return transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
-        .method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build();
+        .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(body)).build();
   }
 
-  private HttpRequest buildAuthorizedPOSTRequest(String endpoint, String body) throws URISyntaxException {
-    return HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+  private HttpRequest buildAuthorizedPOSTRequest(String endpoint, byte[] body) throws URISyntaxException {
+    return transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
-        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
   }
 
   public boolean studyExists(String id) throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/studies/"+id;
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
     return response.statusCode() == 200;
   }
 
   public void printAttributeTypes() throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/sample_attribute_types";
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
     System.err.println(response.body());
   }
 
@@ -219,8 +278,7 @@ public class SEEKConnector {
     URIBuilder builder = new URIBuilder(endpoint);
     builder.setParameter("id", id);
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(HttpRequest.newBuilder().uri(builder.build())
+    HttpResponse<String> response = transport.send(transport.newRequest(builder.build())
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
@@ -236,15 +294,14 @@ public class SEEKConnector {
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/sample_types";
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, sampleType.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, sampleType.toJsonBytes()), BodyHandlers.ofString());
 
     if(response.statusCode()!=201) {
       System.err.println(response.body());
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
+    JsonNode rootNode = JSON_MAPPER.readTree(response.body());
     JsonNode idNode = rootNode.path("data").path("id");
 
     return idNode.asText();
@@ -255,15 +312,14 @@ public class SEEKConnector {
     String endpoint = apiURL+"/samples/"+sampleID;
     isaSample.setSampleID(sampleID);
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPATCHRequest(endpoint, isaSample.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPATCHRequest(endpoint, isaSample.toJsonBytes()), BodyHandlers.ofString());
 
     if(response.statusCode()!=200) {
       System.err.println(response.body());
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
+    JsonNode rootNode = JSON_MAPPER.readTree(response.body());
     JsonNode idNode = rootNode.path("data").path("id");
 
     return endpoint+"/"+idNode.asText();
@@ -273,16 +329,27 @@ public class SEEKConnector {
       InterruptedException {
     String endpoint = apiURL+"/samples";
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, isaSample.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, isaSample.toJsonBytes()), BodyHandlers.ofString());
 
+    return parseCreatedSampleEndpoint(endpoint, response);
+  }
+
+  private CompletableFuture<String> createSampleAsync(ISASample isaSample)
+      throws URISyntaxException, IOException, InterruptedException {
+    String endpoint = apiURL+"/samples";
+
+    return transport.sendAsync(buildAuthorizedPOSTRequest(endpoint, isaSample.toJsonBytes()),
+            BodyHandlers.ofString())
+        .thenApply(response -> parseCreatedSampleEndpoint(endpoint, response));
+  }
+
+  private String parseCreatedSampleEndpoint(String endpoint, HttpResponse<String> response) {
     if(response.statusCode()!=200) {
       System.err.println(response.body());
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
-    JsonNode idNode = rootNode.path("data").path("id");
+    JsonNode idNode = readJson(response.body()).path("data").path("id");
 
     return endpoint+"/"+idNode.asText();
   }
@@ -291,23 +358,115 @@ public class SEEKConnector {
       throws IOException, URISyntaxException, InterruptedException {
     String endpoint = apiURL+"/"+data.getType();
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(buildAuthorizedPOSTRequest(endpoint, data.toJson()),
-            BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(
+        buildAuthorizedPOSTRequest(endpoint, data.toJsonBytes()), BodyHandlers.ofString());
+
+    return parseCreatedAsset(datasetCode, data, response);
+  }
+
+  private CompletableFuture<AssetToUpload> createAssetAsync(String datasetCode,
+      GenericSeekAsset data) throws IOException, URISyntaxException, InterruptedException {
+    String endpoint = apiURL+"/"+data.getType();
+
+    return transport.sendAsync(buildAuthorizedPOSTRequest(endpoint, data.toJsonBytes()),
+            BodyHandlers.ofString())
+        .thenApply(response -> parseCreatedAsset(datasetCode, data, response));
+  }
 
+  private AssetToUpload parseCreatedAsset(String datasetCode, GenericSeekAsset data,
+      HttpResponse<String> response) {
     if(response.statusCode()!=201 && response.statusCode()!=200) {
       System.err.println(response.body());
       throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
     }
 
-    JsonNode rootNode = new ObjectMapper().readTree(response.body());
-    JsonNode idNode = rootNode.path("data")
+    JsonNode idNode = readJson(response.body()).path("data")
         .path("attributes")
         .path("content_blobs")
         .path(0).path("link");
     return new AssetToUpload(idNode.asText(), data.getFileName(), datasetCode, data.fileSizeInBytes());
   }
 
+  private JsonNode readJson(String json) {
+    try {
+      return JSON_MAPPER.readTree(json);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Sends independent requests (e.g. creation of samples or assets) concurrently. The number of
+   * requests in flight is bounded by the connection pool of the transport, which blocks further
+   * requests until one of its permits is free. By default, the first failure stops sending new
+   * requests: requests in flight are completed and a RuntimeException listing the failures is
+   * thrown. If the connector continues on failure, all items are sent and failures are added to
+   * the provided list instead. If the calling thread is interrupted, requests in flight are
+   * cancelled.
+   * @param items the objects to send requests for
+   * @param request creates the request future for an item
+   * @param itemName used to describe an item that failed
+   * @param failures list of failures, extended by this method
+   * @return the results of all successful requests, by item, in the order of the items
+   */
+  private <T, R> Map<T, R> sendConcurrently(Collection<T> items, AsyncRequest<T, R> request,
+      Function<T, String> itemName, List<String> failures) throws InterruptedException {
+    List<T> sentItems = new ArrayList<>();
+    List<CompletableFuture<R>> requests = new ArrayList<>();
+    AtomicBoolean failed = new AtomicBoolean();
+    try {
+      for (T item : items) {
+        if (failed.get() && !continueOnFailure) {
+          break;
+        }
+        CompletableFuture<R> future;
+        try {
+          future = request.send(item);
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+          future = CompletableFuture.failedFuture(e);
+        }
+        sentItems.add(item);
+        requests.add(future.whenComplete((result, throwable) -> {
+          if (throwable != null) {
+            failed.set(true);
+          }
+        }));
+      }
+      CompletableFuture.allOf(requests.toArray(new CompletableFuture[0]))
+          .handle((result, throwable) -> null).get();
+    } catch (InterruptedException e) {
+      requests.forEach(future -> future.cancel(true));
+      throw e;
+    } catch (ExecutionException e) {
+      // not thrown, as failures of single requests are handled below
+      throw new RuntimeException(e);
+    }
+    Map<T, R> results = new LinkedHashMap<>();
+    List<String> collectedFailures = new ArrayList<>();
+    for (int i = 0; i < sentItems.size(); i++) {
+      T item = sentItems.get(i);
+      try {
+        results.put(item, requests.get(i).join());
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        collectedFailures.add(itemName.apply(item) + ": " + cause.getMessage());
+      }
+    }
+    if (!collectedFailures.isEmpty() && !continueOnFailure) {
+      throw new RuntimeException("Request(s) to SEEK failed, " + (items.size() - sentItems.size())
+          + " remaining request(s) were not sent: " + String.join(", ", collectedFailures));
+    }
+    failures.addAll(collectedFailures);
+    return results;
+  }
+
+  @FunctionalInterface
+  private interface AsyncRequest<T, R> {
+
+    CompletableFuture<R> send(T item)
+        throws IOException, URISyntaxException, InterruptedException;
+  }
+
   public String uploadFileContent(String blobEndpoint, String file)
       throws URISyntaxException, IOException, InterruptedException {
 
@@ -318,8 +477,7 @@ public class SEEKConnector {
         .headers("Authorization", "Basic " + new String(credentials))
         .PUT(BodyPublishers.ofFile(new File(file).toPath())).build();
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
 
     if(response.statusCode()!=200) {
       System.err.println(response.body());
@@ -339,8 +497,7 @@ public class SEEKConnector {
         .headers("Authorization", "Basic " + new String(credentials))
         .PUT(BodyPublishers.ofInputStream(streamSupplier)).build();
 
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
 
     System.err.println("response was: "+response);
     System.err.println("response body: "+response.body());
@@ -353,101 +510,104 @@ public class SEEKConnector {
     }
   }
 
+  /**
+   * Uploads streamed content in chunks of the provided size, see {@link ChunkedUploader}. After
+   * each acknowledged chunk, the number of bytes stored in SEEK is passed to the checkpoint
+   * consumer, so a failed upload can be resumed at that offset.
+   * @param blobEndpoint the endpoint of the content blob
+   * @param fileSize the size of the streamed file in bytes
+   * @param offset the number of bytes already stored in SEEK, these are skipped in the stream
+   * @param chunkSize the maximum size of each chunk in bytes
+   * @param streamSupplier provides the stream of the complete file
+   * @param checkpoint receives the number of bytes stored after each chunk
+   * @return the URL of the asset
+   */
+  public String uploadStreamContentInChunks(String blobEndpoint, long fileSize, long offset,
+      int chunkSize, Supplier<InputStream> streamSupplier, LongConsumer checkpoint)
+      throws URISyntaxException, IOException, InterruptedException {
+    if (fileSize == 0) {
+      return uploadStreamContent(blobEndpoint, streamSupplier);
+    }
+    String assetURL = blobEndpointToAssetURL(blobEndpoint);
+    new ChunkedUploader(transport, credentials).upload(blobEndpoint, assetURL, fileSize, offset,
+        chunkSize, streamSupplier, checkpoint);
+    return assetURL;
+  }
+
   private String blobEndpointToAssetURL(String blobEndpoint) {
     return blobEndpoint.split("content_blobs")[0];
   }
 
   public boolean endPointExists(String endpoint)
       throws URISyntaxException, IOException, InterruptedException {
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+    HttpResponse<String> response = transport.send(request, BodyHandlers.ofString());
     return response.statusCode() == 200;
   }
 
   /**
-   * Creates
+   * Creates assets for the provided openBIS files, sending the requests concurrently
    * @param isaToOpenBISFile
    * @param assays
+   * @param failures list of failures, extended by assets that could not be created
    * @return
    * @throws IOException
    * @throws URISyntaxException
    * @throws InterruptedException
    */
   public List<AssetToUpload> createAssetsForAssays(Map<GenericSeekAsset,
-      DataSetFile> isaToOpenBISFile, List<String> assays)
+      DataSetFile> isaToOpenBISFile, List<String> assays, List<String> failures)
       throws IOException, URISyntaxException, InterruptedException {
-    List<AssetToUpload> result = new ArrayList<>();
     for (GenericSeekAsset isaFile : isaToOpenBISFile.keySet()) {
       if(!assays.isEmpty()) {
         isaFile.withAssays(assays);
       }
-      result.add(createAsset(isaToOpenBISFile.get(isaFile).getDataSetPermId().getPermId(),
-          isaFile));
     }
-    return result;
+    Map<GenericSeekAsset, AssetToUpload> createdAssets = sendConcurrently(
+        isaToOpenBISFile.keySet(),
+        isaFile -> createAssetAsync(isaToOpenBISFile.get(isaFile).getDataSetPermId().getPermId(),
+            isaFile),
+        GenericSeekAsset::getFileName, failures);
+    return new ArrayList<>(createdAssets.values());
   }
 
-  public String listAssays() throws URISyntaxException, IOException, InterruptedException {
+  /**
+   * @return id and title of all assays visible to the user
+   */
+  public List<Pair<String, String>> listAssays()
+      throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/assays/";
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
-    if(response.statusCode() == 200) {
-      return response.body();
-    } else {
-      throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
-    }
+    return sendAndRead(request, SeekResponseReader::readIDsAndTitles);
   }
 
   public Map<String, String> getSampleTypeNamesToIDs()
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/sample_types/";
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(new URI(endpoint))
+    HttpRequest request = transport.newRequest(new URI(endpoint))
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
-    if(response.statusCode() == 200) {
-      return parseSampleTypesJSON(response.body());
-    } else {
-      throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
-    }
-  }
-
-  private Map<String, String> parseSampleTypesJSON(String json) throws JsonProcessingException {
     Map<String, String> typesToIDs = new HashMap<>();
-    JsonNode rootNode = new ObjectMapper().readTree(json);
-    JsonNode hits = rootNode.path("data");
-    for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-      JsonNode hit = it.next();
-      String id = hit.get("id").asText();
-      String title = hit.get("attributes").get("title").asText();
-      typesToIDs.put(title, id);
+    for (Pair<String, String> type : sendAndRead(request, SeekResponseReader::readIDsAndTitles)) {
+      typesToIDs.put(type.getRight(), type.getLeft());
     }
     return typesToIDs;
   }
 
   public boolean sampleTypeExists(String typeCode)
       throws URISyntaxException, IOException, InterruptedException {
-    JsonNode result = genericSearch("sample_types", typeCode);
-    JsonNode hits = result.path("data");
-    for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-      JsonNode hit = it.next();
-      if (hit.get("attributes").get("title").asText().equals(typeCode)) {
+    for (Pair<String, String> hit : genericSearch("sample_types", typeCode)) {
+      if (typeCode.equals(hit.getRight())) {
         return true;
       }
     }
@@ -455,40 +615,45 @@ public class SEEKConnector {
   }
 
   /**
-   * Performs a generic search and returns the response in JSON format
+   * Performs a generic search and returns id and title of each hit. Other parts of the response
+   * are skipped while it is read.
    * @param nodeType the type of SEEK node to search for
    * @param searchTerm the term to search for
-   * @return JsonNode of the server's response
+   * @return pairs of id and title of the found nodes
    */
-  private JsonNode genericSearch(String nodeType, String searchTerm)
+  private List<Pair<String, String>> genericSearch(String nodeType, String searchTerm)
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/search";
     URIBuilder builder = new URIBuilder(endpoint);
     builder.setParameter("q", searchTerm).setParameter("search_type", nodeType);
 
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(builder.build())
+    HttpRequest request = transport.newRequest(builder.build())
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
-    if(response.statusCode() == 200) {
-      return new ObjectMapper().readTree(response.body());
-    } else {
-      throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
+    return sendAndRead(request, SeekResponseReader::readIDsAndTitles);
+  }
+
+  /**
+   * Sends a request and reads the needed parts of the response body while it is received.
+   */
+  private <T> T sendAndRead(HttpRequest request, SeekResponseReader.Reader<T> reader)
+      throws IOException, InterruptedException {
+    HttpResponse<InputStream> response = transport.send(request, BodyHandlers.ofInputStream());
+    try (InputStream body = response.body()) {
+      if(response.statusCode() != 200) {
+        throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
+      }
+      return reader.read(body);
     }
   }
 
   private String searchNodeWithTitle(String nodeType, String title)
       throws URISyntaxException, IOException, InterruptedException {
-    JsonNode result = genericSearch(nodeType, title);
-    JsonNode hits = result.path("data");
-    for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-      JsonNode hit = it.next();
-      if (hit.get("attributes").get("title").asText().equals(title)) {
-        return hit.get("id").asText();
+    for (Pair<String, String> hit : genericSearch(nodeType, title)) {
+      if (title.equals(hit.getRight())) {
+        return hit.getLeft();
       }
     }
     throw new RuntimeException("Matching " + nodeType + " title was not found : " + title);
@@ -505,17 +670,16 @@ public class SEEKConnector {
   public List<String> searchAssaysInStudyContainingKeyword(String searchTerm)
       throws URISyntaxException, IOException, InterruptedException {
 
-    JsonNode result = genericSearch("assays", "*"+searchTerm+"*");
+    List<Pair<String, String>> hits = genericSearch("assays", "*"+searchTerm+"*");
 
-    JsonNode hits = result.path("data");
     List<String> assayIDsInStudy = new ArrayList<>();
-    for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-      JsonNode hit = it.next();
-      String assayID = hit.get("id").asText();
-      JsonNode assayData = fetchAssayData(assayID).get("data");
-      JsonNode relationships = assayData.get("relationships");
-      String studyID = relationships.get("study").get("data").get("id").asText();
-      if(studyID.equals(currentStudy)) {
+    if (currentStudy == null) {
+      return assayIDsInStudy;
+    }
+    Set<String> studyAssays = getAssayIDsOfCurrentStudy();
+    for (Pair<String, String> hit : hits) {
+      String assayID = hit.getLeft();
+      if(studyAssays.contains(assayID)) {
         assayIDsInStudy.add(assayID);
       }
     }
@@ -533,15 +697,11 @@ public class SEEKConnector {
   public List<String> searchSamplesContainingKeyword(String searchTerm)
       throws URISyntaxException, IOException, InterruptedException {
 
-    JsonNode result = genericSearch("samples", "*"+searchTerm+"*");
-
-    JsonNode hits = result.path("data");
-    List<String> assayIDs = new ArrayList<>();
-    for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-      JsonNode hit = it.next();
-      assayIDs.add(hit.get("id").asText());
+    List<String> sampleIDs = new ArrayList<>();
+    for (Pair<String, String> hit : genericSearch("samples", "*"+searchTerm+"*")) {
+      sampleIDs.add(hit.getLeft());
     }
-    return assayIDs;
+    return sampleIDs;
   }
 
 
@@ -549,12 +709,8 @@ public class SEEKConnector {
       throws URISyntaxException, IOException, InterruptedException {
     List<String> assetIDs = new ArrayList<>();
     for(String type : ASSET_TYPES) {
-      JsonNode result = genericSearch(type, "*"+searchTerm+"*");
-
-      JsonNode hits = result.path("data");
-      for (Iterator<JsonNode> it = hits.elements(); it.hasNext(); ) {
-        JsonNode hit = it.next();
-        assetIDs.add(hit.get("id").asText());
+      for (Pair<String, String> hit : genericSearch(type, "*"+searchTerm+"*")) {
+        assetIDs.add(hit.getLeft());
       }
     }
     return assetIDs;
@@ -574,8 +730,8 @@ public class SEEKConnector {
    */
   public SeekStructurePostRegistrationInformation updateAssayNode(SeekStructure nodeWithChildren,
       String assayID) throws URISyntaxException, IOException, InterruptedException {
-    JsonNode assayData = fetchAssayData(assayID).get("data");
-    Map<String, SampleInformation> sampleInfos = collectSampleInformation(assayData);
+    AssayContentIndex existingContent = prefetchAssayContent(assayID,
+        fetchAssayRelationships(assayID));
 
     // compare samples
     Map<ISASample, String> newSamplesWithReferences = nodeWithChildren.getSamplesWithOpenBISReference();
@@ -583,7 +739,7 @@ public class SEEKConnector {
     List<ISASample> samplesToCreate = new ArrayList<>();
     for (ISASample newSample : newSamplesWithReferences.keySet()) {
       String openBisID = newSamplesWithReferences.get(newSample);
-      SampleInformation existingSample = sampleInfos.get(openBisID);
+      SampleInformation existingSample = existingContent.getSample(openBisID);
       if (existingSample == null) {
         samplesToCreate.add(newSample);
         System.out.printf("%s not found in SEEK. It will be created.%n", openBisID);
@@ -606,31 +762,34 @@ public class SEEKConnector {
     }
 
     // compare assets
-    Map<String, AssetInformation> assetInfos = collectAssetInformation(assayData);
     Map<GenericSeekAsset, DataSetFile> newAssetsToFiles = nodeWithChildren.getISAFileToDatasetFiles();
 
     List<GenericSeekAsset> assetsToCreate = new ArrayList<>();
     for (GenericSeekAsset newAsset : newAssetsToFiles.keySet()) {
       DataSetFile file = newAssetsToFiles.get(newAsset);
       String newPermId = file.getDataSetPermId().getPermId();
-      if (!assetInfos.containsKey(newPermId)) {
+      if (!existingContent.containsAssetOfDataset(newPermId)) {
         assetsToCreate.add(newAsset);
         System.out.printf("Assets with Dataset PermId %s not found in SEEK. File %s from this "
             + "Dataset will be created.%n", newPermId, newAsset.getFileName());
       }
     }
+    List<String> failures = new ArrayList<>();
     Map<String, String> sampleIDsWithEndpoints = new HashMap<>();
     for (ISASample sample : samplesToCreate) {
       sample.setAssayIDs(Collections.singletonList(assayID));
-      String sampleEndpoint = createSample(sample);
-      sampleIDsWithEndpoints.put(newSamplesWithReferences.get(sample), sampleEndpoint);
     }
-    List<AssetToUpload> assetsToUpload = new ArrayList<>();
+    sendConcurrently(samplesToCreate, this::createSampleAsync, newSamplesWithReferences::get,
+        failures).forEach((sample, sampleEndpoint) ->
+        sampleIDsWithEndpoints.put(newSamplesWithReferences.get(sample), sampleEndpoint));
+
     for (GenericSeekAsset asset : assetsToCreate) {
       asset.withAssays(Collections.singletonList(assayID));
-      assetsToUpload.add(createAsset(newAssetsToFiles.get(asset).getDataSetPermId().getPermId(),
-          asset));
     }
+    Map<GenericSeekAsset, AssetToUpload> createdAssets = sendConcurrently(assetsToCreate,
+        asset -> createAssetAsync(newAssetsToFiles.get(asset).getDataSetPermId().getPermId(),
+            asset), GenericSeekAsset::getFileName, failures);
+    List<AssetToUpload> assetsToUpload = new ArrayList<>(createdAssets.values());
     Map<String, Set<String>> datasetIDsWithEndpoints = new HashMap<>();
 
     for (AssetToUpload asset : assetsToUpload) {
@@ -653,56 +812,58 @@ public class SEEKConnector {
         new SeekStructurePostRegistrationInformation(assetsToUpload, sampleIDsWithEndpoints,
             datasetIDsWithEndpoints);
     postRegInfo.setExperimentIDWithEndpoint(experimentIDWithEndpoint);
-        return postRegInfo;
+    postRegInfo.addFailures(failures);
+    return postRegInfo;
   }
 
-  private Map<String, AssetInformation> collectAssetInformation(JsonNode assayData)
-      throws URISyntaxException, IOException, InterruptedException {
-    Map<String, AssetInformation> assets = new HashMap<>();
-    JsonNode relationships = assayData.get("relationships");
+  /**
+   * Fetches all samples and assets related to an assay concurrently and indexes them by openBIS
+   * sample identifier and dataset permId, respectively. Any failed request aborts the prefetch,
+   * even if the connector continues on failure, as a comparison against an incomplete index would
+   * lead to duplicate samples and assets.
+   */
+  private AssayContentIndex prefetchAssayContent(String assayID,
+      Map<String, List<String>> relatedIDs) throws InterruptedException {
+    List<String> sampleIDs = relatedIDs.getOrDefault("samples", List.of());
+    List<Pair<String, String>> assetIDsWithTypes = new ArrayList<>();
     for(String type : ASSET_TYPES) {
-      for (Iterator<JsonNode> it = relationships.get(type).get("data").elements(); it.hasNext(); ) {
-          String assetID = it.next().get("id").asText();
-          AssetInformation assetInfo = fetchAssetInformation(assetID, type);
-          if(assetInfo.getOpenbisPermId()!=null) {
-            assets.put(assetInfo.getOpenbisPermId(), assetInfo);
-          } else {
-            System.out.printf("No Dataset permID found for existing %s %s (id: %s)%n"
-                    + "This asset will be treated as if it would not exist in the update.%n",
-                type, assetInfo.getTitle(), assetID);
-          }
+      for (String assetID : relatedIDs.getOrDefault(type, List.of())) {
+        assetIDsWithTypes.add(new ImmutablePair<>(assetID, type));
       }
     }
-    return assets;
-  }
-
-  private Map<String, SampleInformation> collectSampleInformation(JsonNode assayData)
-      throws URISyntaxException, IOException, InterruptedException {
-    Map<String, SampleInformation> samples = new HashMap<>();
-    JsonNode relationships = assayData.get("relationships");
-      for (Iterator<JsonNode> it = relationships.get("samples").get("data").elements(); it.hasNext(); ) {
-        String sampleID = it.next().get("id").asText();
-        SampleInformation info = fetchSampleInformation(sampleID);
-        samples.put(info.getOpenBisIdentifier(), info);
+    List<String> failures = new ArrayList<>();
+    Map<String, SampleInformation> samples = sendConcurrently(sampleIDs,
+        this::fetchSampleInformationAsync, sampleID -> "sample " + sampleID, failures);
+    Map<Pair<String, String>, AssetInformation> assets = sendConcurrently(assetIDsWithTypes,
+        asset -> fetchAssetInformationAsync(asset.getLeft(), asset.getRight()),
+        asset -> asset.getRight() + " " + asset.getLeft(), failures);
+    if (!failures.isEmpty()) {
+      throw new RuntimeException("Could not fetch existing content of assay "
+          + assayID + ": " + String.join(", ", failures));
+    }
+    for (AssetInformation assetInfo : assets.values()) {
+      if (assetInfo.getOpenbisPermId() == null) {
+        System.out.printf("No Dataset permID found for existing %s %s (id: %s)%n"
+                + "This asset will be treated as if it would not exist in the update.%n",
+            assetInfo.getAssetType(), assetInfo.getTitle(), assetInfo.getSeekID());
       }
-    return samples;
+    }
+    System.out.printf("Found %s samples and %s assets in assay %s.%n", samples.size(),
+        assets.size(), assayID);
+    return new AssayContentIndex(samples.values(), assets.values());
   }
 
-  private AssetInformation fetchAssetInformation(String assetID, String assetType)
-      throws URISyntaxException, IOException, InterruptedException {
+  private CompletableFuture<AssetInformation> fetchAssetInformationAsync(String assetID,
+      String assetType) throws URISyntaxException, InterruptedException {
     String endpoint = apiURL+"/"+assetType+"/"+assetID;
-    URIBuilder builder = new URIBuilder(endpoint);
+    return transport.sendAsync(buildAuthorizedGETRequest(endpoint), BodyHandlers.ofString())
+        .thenApply(response -> parseAssetInformation(assetID, assetType, response));
+  }
 
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(builder.build())
-        .headers("Content-Type", "application/json")
-        .headers("Accept", "application/json")
-        .headers("Authorization", "Basic " + new String(credentials))
-        .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+  private AssetInformation parseAssetInformation(String assetID, String assetType,
+      HttpResponse<String> response) {
     if(response.statusCode() == 200) {
-      JsonNode attributes = new ObjectMapper().readTree(response.body()).get("data").get("attributes");
+      JsonNode attributes = readJson(response.body()).get("data").get("attributes");
       String title = attributes.get("title").asText();
       String description = attributes.get("description").asText();
       AssetInformation result = new AssetInformation(assetID, assetType, title, description);
@@ -763,17 +924,16 @@ public class SEEKConnector {
     //TODO follow creation of assets for assay, no way to be sure these are attached to similar samples
     List<GenericSeekAsset> assetsToCreate = new ArrayList<>();
 
+    List<String> failures = new ArrayList<>();
     Map<String, String> sampleIDsWithEndpoints = new HashMap<>();
-    for (ISASample sample : samplesToCreate) {
-      String sampleEndpoint = createSample(sample);
-      sampleIDsWithEndpoints.put(newSamplesWithReferences.get(sample), sampleEndpoint);
-    }
-    List<AssetToUpload> assetsToUpload = new ArrayList<>();
-
-    for (GenericSeekAsset asset : assetsToCreate) {
-      assetsToUpload.add(createAsset(newAssetsToFiles.get(asset).getDataSetPermId().getPermId(),
-          asset));
-    }
+    sendConcurrently(samplesToCreate, this::createSampleAsync, newSamplesWithReferences::get,
+        failures).forEach((sample, sampleEndpoint) ->
+        sampleIDsWithEndpoints.put(newSamplesWithReferences.get(sample), sampleEndpoint));
+
+    Map<GenericSeekAsset, AssetToUpload> createdAssets = sendConcurrently(assetsToCreate,
+        asset -> createAssetAsync(newAssetsToFiles.get(asset).getDataSetPermId().getPermId(),
+            asset), GenericSeekAsset::getFileName, failures);
+    List<AssetToUpload> assetsToUpload = new ArrayList<>(createdAssets.values());
     Map<String, Set<String>> datasetIDsWithEndpoints = new HashMap<>();
 
     for (AssetToUpload asset : assetsToUpload) {
@@ -787,29 +947,36 @@ public class SEEKConnector {
       }
     }
 
-    return new SeekStructurePostRegistrationInformation(assetsToUpload, sampleIDsWithEndpoints,
-        datasetIDsWithEndpoints);
+    SeekStructurePostRegistrationInformation postRegInfo =
+        new SeekStructurePostRegistrationInformation(assetsToUpload, sampleIDsWithEndpoints,
+            datasetIDsWithEndpoints);
+    postRegInfo.addFailures(failures);
+    return postRegInfo;
   }
 
   private SampleInformation fetchSampleInformation(String sampleID) throws URISyntaxException,
       IOException, InterruptedException {
     String endpoint = apiURL+"/samples/"+sampleID;
-    URIBuilder builder = new URIBuilder(endpoint);
+    HttpResponse<String> response = transport.send(buildAuthorizedGETRequest(endpoint),
+        BodyHandlers.ofString());
+    return parseSampleInformation(sampleID, response);
+  }
 
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(builder.build())
-        .headers("Content-Type", "application/json")
-        .headers("Accept", "application/json")
-        .headers("Authorization", "Basic " + new String(credentials))
-        .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
+  private CompletableFuture<SampleInformation> fetchSampleInformationAsync(String sampleID)
+      throws URISyntaxException, InterruptedException {
+    String endpoint = apiURL+"/samples/"+sampleID;
+    return transport.sendAsync(buildAuthorizedGETRequest(endpoint), BodyHandlers.ofString())
+        .thenApply(response -> parseSampleInformation(sampleID, response));
+  }
+
+  private SampleInformation parseSampleInformation(String sampleID,
+      HttpResponse<String> response) {
     if(response.statusCode() == 200) {
-      JsonNode attributeNode = new ObjectMapper().readTree(response.body()).get("data").get("attributes");
+      JsonNode attributeNode = readJson(response.body()).get("data").get("attributes");
       //title is openbis identifier - this is also added to attribute_map under the name:
       //App.configProperties.get("seek_openbis_sample_title");
       String openBisId = attributeNode.get("title").asText();
-      Map<String, Object> attributesMap = new ObjectMapper()
+      Map<String, Object> attributesMap = JSON_MAPPER
           .convertValue(attributeNode.get("attribute_map"), Map.class);
       return new SampleInformation(sampleID, openBisId, attributesMap);
     } else {
@@ -817,24 +984,28 @@ public class SEEKConnector {
     }
   }
 
-  private JsonNode fetchAssayData(String assayID)
+  private HttpRequest buildAuthorizedGETRequest(String endpoint) throws URISyntaxException {
+    return transport.newRequest(new URIBuilder(endpoint).build())
+        .headers("Content-Type", "application/json")
+        .headers("Accept", "application/json")
+        .headers("Authorization", "Basic " + new String(credentials))
+        .GET().build();
+  }
+
+  /**
+   * @return ids of the samples, assets and other objects related to an assay, by relationship name
+   */
+  private Map<String, List<String>> fetchAssayRelationships(String assayID)
       throws URISyntaxException, IOException, InterruptedException {
     String endpoint = apiURL+"/assays/"+assayID;
     URIBuilder builder = new URIBuilder(endpoint);
 
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(builder.build())
+    HttpRequest request = transport.newRequest(builder.build())
         .headers("Content-Type", "application/json")
         .headers("Accept", "application/json")
         .headers("Authorization", "Basic " + new String(credentials))
         .GET().build();
-    HttpResponse<String> response = HttpClient.newBuilder().build()
-        .send(request, BodyHandlers.ofString());
-    if(response.statusCode() == 200) {
-      return new ObjectMapper().readTree(response.body());
-    } else {
-      throw new RuntimeException("Failed : HTTP error code : " + response.statusCode());
-    }
+    return sendAndRead(request, SeekResponseReader::readRelationshipIDs);
   }
 
   public SeekStructurePostRegistrationInformation createNode(SeekStructure nodeWithChildren)
@@ -847,19 +1018,21 @@ public class SEEKConnector {
     Pair<String, String> experimentIDWithEndpoint =
         new ImmutablePair<>(assayIDPair.getValue(), assayEndpoint);
 
-    //wait for a bit, so we can be sure the assay that will be referenced by the samples has been created
-    Thread.sleep(3000);
+    //make sure the assay that will be referenced by the samples is available
+    Duration assayWait = waitForEndpoint(assayEndpoint);
 
     Map<String, String> sampleIDsWithEndpoints = new HashMap<>();
     Map<ISASample, String> samplesWithReferences = nodeWithChildren.getSamplesWithOpenBISReference();
     if(!samplesWithReferences.isEmpty()) {
       System.out.println("Creating samples...");
     }
+    List<String> failures = new ArrayList<>();
     for(ISASample sample : samplesWithReferences.keySet()) {
       sample.setAssayIDs(Collections.singletonList(assayID));
-      String sampleEndpoint = createSample(sample);
-      sampleIDsWithEndpoints.put(samplesWithReferences.get(sample), sampleEndpoint);
     }
+    sendConcurrently(samplesWithReferences.keySet(), this::createSampleAsync,
+        samplesWithReferences::get, failures).forEach((sample, sampleEndpoint) ->
+        sampleIDsWithEndpoints.put(samplesWithReferences.get(sample), sampleEndpoint));
 
     Map<GenericSeekAsset, DataSetFile> isaToFileMap = nodeWithChildren.getISAFileToDatasetFiles();
 
@@ -868,7 +1041,7 @@ public class SEEKConnector {
     }
 
     List<AssetToUpload> assetsToUpload = createAssetsForAssays(isaToFileMap,
-        Collections.singletonList(assayID));
+        Collections.singletonList(assayID), failures);
 
     Map<String, Set<String>> datasetIDsWithEndpoints = new HashMap<>();
 
@@ -886,9 +1059,32 @@ public class SEEKConnector {
         new SeekStructurePostRegistrationInformation(assetsToUpload, sampleIDsWithEndpoints,
             datasetIDsWithEndpoints);
     postRegInfo.setExperimentIDWithEndpoint(experimentIDWithEndpoint);
+    postRegInfo.setAssayReadinessWait(assayWait);
+    postRegInfo.addFailures(failures);
     return postRegInfo;
   }
 
+  /**
+   * Polls an endpoint until it can be retrieved. The first check is done immediately, after that
+   * the delay between checks is doubled up to a maximum, until the overall time limit is reached.
+   * @param endpoint the endpoint that should become available
+   * @return the time it took for the endpoint to become available
+   */
+  private Duration waitForEndpoint(String endpoint)
+      throws URISyntaxException, IOException, InterruptedException {
+    long start = System.nanoTime();
+    long delay = READINESS_INITIAL_DELAY_MILLIS;
+    while (!endPointExists(endpoint)) {
+      long waited = Duration.ofNanos(System.nanoTime() - start).toMillis();
+      if (waited >= READINESS_MAX_WAIT_MILLIS) {
+        throw new RuntimeException(endpoint + " was not available after " + waited + " ms.");
+      }
+      Thread.sleep(Math.min(delay, READINESS_MAX_WAIT_MILLIS - waited));
+      delay = Math.min(delay * 2, READINESS_MAX_DELAY_MILLIS);
+    }
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+
   /*
   public SeekStructurePostRegistrationInformation createSampleWithAssets(SeekStructure nodeWithChildren)
       throws URISyntaxException, IOException, InterruptedException {
@@ -946,6 +1142,10 @@ public class SEEKConnector {
     return translator;
   }
 
+  public SEEKHttpTransport getTransport() {
+    return transport;
+  }
+
   public static class AssetToUpload {
 
     private final String blobEndpoint;
@@ -984,6 +1184,8 @@ public class SEEKConnector {
     private Optional<Pair<String, String>> experimentIDWithEndpoint;
     private final Map<String, String> sampleIDsWithEndpoints;
     private final Map<String, Set<String>> datasetIDsWithEndpoints;
+    private final List<String> failures = new ArrayList<>();
+    private Optional<Duration> assayReadinessWait = Optional.empty();
 
     public SeekStructurePostRegistrationInformation(List<AssetToUpload> assetsToUpload,
         Map<String, String> sampleIDsWithEndpoints,
@@ -1022,5 +1224,27 @@ public class SEEKConnector {
       return datasetIDsWithEndpoints;
     }
 
+    public void setAssayReadinessWait(Duration waitTime) {
+      this.assayReadinessWait = Optional.of(waitTime);
+    }
+
+    /**
+     * @return the time waited for a newly created assay to become available in SEEK
+     */
+    public Optional<Duration> getAssayReadinessWait() {
+      return assayReadinessWait;
+    }
+
+    public void addFailures(List<String> failures) {
+      this.failures.addAll(failures);
+    }
+
+    /**
+     * @return descriptions of SEEK objects that could not be created
+     */
+    public List<String> getFailures() {
+      return failures;
+    }
+
   }
 }
@@ -0,0 +1,241 @@
+package life.qbic.model.download;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * Connector-scoped HTTP transport for SEEK. A single HttpClient (HTTP/2 where the server supports
+ * it, HTTP/1.1 keep-alive otherwise) is reused for all requests, so connections and TLS sessions
+ * are shared instead of being set up for every call. The number of requests in flight is bounded
+ * by the configured pool size. As the client only opens a new HTTP/1.1 connection if no idle one
+ * is available, this also bounds the number of pooled connections, without changing the JVM-wide
+ * pool settings of the JDK client.
+ *
+ * Settings can be provided via the config file:
+ * seek_connect_timeout (seconds), seek_request_timeout (seconds), seek_max_connections
+ */
+public class SEEKHttpTransport {
+
+  private static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 30;
+  private static final long DEFAULT_REQUEST_TIMEOUT_SECONDS = 300;
+  private static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+  private final HttpClient client;
+  private final ExecutorService executor;
+  private final Duration requestTimeout;
+  private final int maxConnections;
+  private final Semaphore connectionPermits;
+  private final AtomicLong tlsConnectionsOpened = new AtomicLong();
+  private final AtomicLong requestsSent = new AtomicLong();
+
+  public SEEKHttpTransport(Duration connectTimeout, Duration requestTimeout, int maxConnections) {
+    if (maxConnections < 1) {
+      throw new IllegalArgumentException("At least one connection is needed to talk to SEEK.");
+    }
+    this.requestTimeout = requestTimeout;
+    this.maxConnections = maxConnections;
+    this.connectionPermits = new Semaphore(maxConnections);
+    this.executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+      Thread thread = new Thread(runnable, "seek-http");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.client = HttpClient.newBuilder()
+        .version(Version.HTTP_2)
+        .connectTimeout(connectTimeout)
+        // redirects are not followed (the client default), 308 acknowledges chunks of uploads
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .executor(executor)
+        .sslContext(createCountingSSLContext())
+        .build();
+  }
+
+  /**
+   * Creates a transport using the settings found in the provided config properties, falling back
+   * to default values for missing entries.
+   */
+  public static SEEKHttpTransport fromConfig(Map<String, String> config) {
+    long connectTimeout = parseLong(config.get("seek_connect_timeout"),
+        DEFAULT_CONNECT_TIMEOUT_SECONDS);
+    long requestTimeout = parseLong(config.get("seek_request_timeout"),
+        DEFAULT_REQUEST_TIMEOUT_SECONDS);
+    int maxConnections = (int) parseLong(config.get("seek_max_connections"),
+        DEFAULT_MAX_CONNECTIONS);
+    return new SEEKHttpTransport(Duration.ofSeconds(connectTimeout),
+        Duration.ofSeconds(requestTimeout), maxConnections);
+  }
+
+  private static long parseLong(String value, long defaultValue) {
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Expected a number in SEEK connection settings, found: " + value);
+    }
+  }
+
+  /**
+   * Starts a request for the provided URI, using the configured request timeout. Uploads of whole
+   * files should use HttpRequest.newBuilder() directly, as their duration depends on file size.
+   * Chunks of chunked uploads are bounded in size and use the timeout.
+   */
+  public HttpRequest.Builder newRequest(URI uri) {
+    return HttpRequest.newBuilder().uri(uri).timeout(requestTimeout);
+  }
+
+  public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    connectionPermits.acquire();
+    try {
+      requestsSent.incrementAndGet();
+      return client.send(request, handler);
+    } finally {
+      connectionPermits.release();
+    }
+  }
+
+  /**
+   * Sends a request asynchronously. The permit of the bounded pool is acquired by the calling
+   * thread, so callers submitting many requests are slowed down instead of queueing without limit.
+   */
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+      BodyHandler<T> handler) throws InterruptedException {
+    connectionPermits.acquire();
+    requestsSent.incrementAndGet();
+    try {
+      return client.sendAsync(request, handler)
+          .whenComplete((response, throwable) -> connectionPermits.release());
+    } catch (RuntimeException e) {
+      connectionPermits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of new TLS connections opened to SEEK by this transport. Connections
+   * reused from the pool are not counted. The JDK client does not expose the opening of plain
+   * connections, so this is always 0 for SEEK instances reached via http.
+   */
+  public long getTlsConnectionsOpened() {
+    return tlsConnectionsOpened.get();
+  }
+
+  /**
+   * Stops the threads of this transport. Requests still in flight are cancelled, the transport can
+   * not be used afterwards.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public long getRequestsSent() {
+    return requestsSent.get();
+  }
+
+  private SSLContext createCountingSSLContext() {
+    try {
+      SSLContext delegate = SSLContext.getInstance("TLS");
+      delegate.init(null, null, null);
+      return new CountingSSLContext(delegate);
+    } catch (NoSuchAlgorithmException | KeyManagementException e) {
+      throw new RuntimeException("Could not set up TLS for SEEK connections.", e);
+    }
+  }
+
+  /**
+   * The HttpClient creates one SSLEngine per new TLS connection, which is used to count them.
+   */
+  private class CountingSSLContext extends SSLContext {
+
+    CountingSSLContext(SSLContext delegate) {
+      super(new CountingSSLContextSpi(delegate), delegate.getProvider(), delegate.getProtocol());
+    }
+  }
+
+  private class CountingSSLContextSpi extends SSLContextSpi {
+
+    private final SSLContext delegate;
+
+    CountingSSLContextSpi(SSLContext delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers,
+        SecureRandom random) throws KeyManagementException {
+      delegate.init(keyManagers, trustManagers, random);
+    }
+
+    @Override
+    protected SSLSocketFactory engineGetSocketFactory() {
+      return delegate.getSocketFactory();
+    }
+
+    @Override
+    protected SSLServerSocketFactory engineGetServerSocketFactory() {
+      return delegate.getServerSocketFactory();
+    }
+
+    @Override
+    protected SSLEngine engineCreateSSLEngine() {
+      tlsConnectionsOpened.incrementAndGet();
+      return delegate.createSSLEngine();
+    }
+
+    @Override
+    protected SSLEngine engineCreateSSLEngine(String host, int port) {
+      tlsConnectionsOpened.incrementAndGet();
+      return delegate.createSSLEngine(host, port);
+    }
+
+    @Override
+    protected SSLSessionContext engineGetServerSessionContext() {
+      return delegate.getServerSessionContext();
+    }
+
+    @Override
+    protected SSLSessionContext engineGetClientSessionContext() {
+      return delegate.getClientSessionContext();
+    }
+
+    @Override
+    protected SSLParameters engineGetDefaultSSLParameters() {
+      return delegate.getDefaultSSLParameters();
+    }
+
+    @Override
+    protected SSLParameters engineGetSupportedSSLParameters() {
+      return delegate.getSupportedSSLParameters();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package life.qbic.model.download;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Reads the parts of SEEK responses that are needed by this tool directly from the response
+ * stream. Everything else is skipped while parsing, so no tree of the whole response is built,
+ * which keeps memory use low for large search results and lists.
+ */
+public class SeekResponseReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  @FunctionalInterface
+  public interface Reader<T> {
+
+    T read(InputStream json) throws IOException;
+  }
+
+  private SeekResponseReader() {
+  }
+
+  /**
+   * Reads id and title of each object in the "data" array of a search or list response.
+   * @return pairs of id and title (null if an object has no title), in the order of the response
+   */
+  public static List<Pair<String, String>> readIDsAndTitles(InputStream json) throws IOException {
+    List<Pair<String, String>> hits = new ArrayList<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      expectStartObject(parser, parser.nextToken());
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (field.equals("data") && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            hits.add(readIDAndTitle(parser));
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Reads the ids of all related objects of a single object response, e.g. the samples and assets
+   * of an assay.
+   * @return ids by name of the relationship (e.g. "samples", "data_files")
+   */
+  public static Map<String, List<String>> readRelationshipIDs(InputStream json)
+      throws IOException {
+    Map<String, List<String>> relatedIDs = new HashMap<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      expectStartObject(parser, parser.nextToken());
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (field.equals("data") && value == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String dataField = parser.getCurrentName();
+            JsonToken dataValue = parser.nextToken();
+            if (dataField.equals("relationships") && dataValue == JsonToken.START_OBJECT) {
+              readRelationships(parser, relatedIDs);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return relatedIDs;
+  }
+
+  private static void readRelationships(JsonParser parser, Map<String, List<String>> relatedIDs)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String relationship = parser.getCurrentName();
+      List<String> ids = new ArrayList<>();
+      relatedIDs.put(relationship, ids);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (field.equals("data") && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            ids.add(readIDAndTitle(parser).getLeft());
+          }
+        } else if (field.equals("data") && value == JsonToken.START_OBJECT) {
+          ids.add(readIDAndTitle(parser).getLeft());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the object the parser is positioned at, leaving the parser at its end.
+   */
+  private static Pair<String, String> readIDAndTitle(JsonParser parser) throws IOException {
+    String id = null;
+    String title = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (field.equals("id")) {
+        // null for objects and arrays, which are skipped
+        id = parser.getValueAsString();
+        parser.skipChildren();
+      } else if (field.equals("attributes") && value == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String attribute = parser.getCurrentName();
+          parser.nextToken();
+          if (attribute.equals("title")) {
+            title = parser.getValueAsString();
+          }
+          parser.skipChildren();
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new ImmutablePair<>(id, title);
+  }
+
+  private static void expectStartObject(JsonParser parser, JsonToken token) throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      throw new IOException("Unexpected SEEK response, expected a json object but found " + token
+          + " at " + parser.getCurrentLocation());
+    }
+  }
+}
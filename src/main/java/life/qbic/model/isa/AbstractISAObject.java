@@ -1,25 +1,70 @@
 package life.qbic.model.isa;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Used to create the outer "data" node of all SEEK json objects.
+ * Each subclass provides one writer with its serializers registered, which is created once and
+ * shared by all objects of that class. Writers are immutable and can be used by several threads.
  */
 public abstract class AbstractISAObject {
 
-  public String toJson(SimpleModule module) throws JsonProcessingException {
+  /**
+   * Creates the writer of an ISA class. Should be called once per class and kept in a constant.
+   */
+  protected static ObjectWriter createWriter(SimpleModule module) {
     ObjectMapper mapper = new ObjectMapper();
     mapper.registerModule(module);
-    ObjectWriter ow = mapper.writer().withDefaultPrettyPrinter();
-    String json = ow.writeValueAsString(this);
-    StringBuilder jsonBuilder = new StringBuilder();
-    jsonBuilder.append("{\"data\":");
-    jsonBuilder.append(json);
-    jsonBuilder.append("}");
-    return jsonBuilder.toString();
+    return mapper.writer();
+  }
+
+  protected abstract ObjectWriter writer();
+
+  /**
+   * Writes the object, wrapped in a "data" node, to the provided stream. The stream is not closed.
+   */
+  public void writeJson(OutputStream out, boolean pretty) throws IOException {
+    ObjectWriter writer = pretty ? writer().withDefaultPrettyPrinter() : writer();
+    try (JsonGenerator generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      if (pretty) {
+        generator.useDefaultPrettyPrinter();
+      }
+      generator.writeStartObject();
+      generator.writeFieldName("data");
+      writer.writeValue(generator, this);
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * @return the compact json of this object, as UTF-8 encoded bytes, e.g. to be used as request body
+   */
+  public byte[] toJsonBytes() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeJson(out, false);
+    return out.toByteArray();
+  }
+
+  public String toJson() throws IOException {
+    return new String(toJsonBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the json of this object with line breaks and indentation, e.g. to be written to files
+   */
+  public String toPrettyJson() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeJson(out, true);
+    return out.toString(StandardCharsets.UTF_8);
   }
 
 }
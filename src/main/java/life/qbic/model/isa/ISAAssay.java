@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -20,6 +20,9 @@ import java.util.Objects;
  */
 public class ISAAssay extends AbstractISAObject {
 
+  private static final ObjectWriter WRITER = createWriter(new SimpleModule()
+      .addSerializer(Relationships.class, new RelationshipsSerializer()));
+
   private final String ISA_TYPE = "assays";
 
   private Attributes attributes;
@@ -71,10 +74,9 @@ public class ISAAssay extends AbstractISAObject {
     this.relationships.setDocumentIDs(documentIDs);
   }
 
-  public String toJson() throws JsonProcessingException {
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Relationships.class, new RelationshipsSerializer());
-    return super.toJson(module);
+  @Override
+  protected ObjectWriter writer() {
+    return WRITER;
   }
 
   public String getType() {
@@ -89,7 +91,7 @@ public class ISAAssay extends AbstractISAObject {
     return attributes;
   }
 
-  private class Relationships {
+  private static class Relationships {
 
     private String studyId;
     private List<Integer> creators = new ArrayList<>();
@@ -131,7 +133,7 @@ public class ISAAssay extends AbstractISAObject {
     }
   }
 
-  public class RelationshipsSerializer extends StdSerializer<Relationships> {
+  public static class RelationshipsSerializer extends StdSerializer<Relationships> {
 
     public RelationshipsSerializer(Class<Relationships> t) {
       super(t);
@@ -162,7 +164,7 @@ public class ISAAssay extends AbstractISAObject {
     }
   }
 
-  private void generateListJSON(JsonGenerator generator, String name, List<Integer> items, String type)
+  private static void generateListJSON(JsonGenerator generator, String name, List<Integer> items, String type)
       throws IOException {
     generator.writeObjectFieldStart(name);
     generator.writeArrayFieldStart("data");
@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -19,6 +19,9 @@ import java.util.List;
  */
 public class ISADataFile extends AbstractISAObject {
 
+  private static final ObjectWriter WRITER = createWriter(new SimpleModule()
+      .addSerializer(Relationships.class, new RelationshipsSerializer()));
+
   private Attributes attributes;
   private Relationships relationships;
   private final String ISA_TYPE = "data_files";
@@ -43,10 +46,9 @@ public class ISADataFile extends AbstractISAObject {
     return this;
   }
 
-  public String toJson() throws JsonProcessingException {
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Relationships.class, new RelationshipsSerializer());
-    return super.toJson(module);
+  @Override
+  protected ObjectWriter writer() {
+    return WRITER;
   }
 
   public String getType() {
@@ -65,7 +67,7 @@ public class ISADataFile extends AbstractISAObject {
     return attributes.getContent_blobs().get(0).getOriginal_filename();
   }
 
-  private class Relationships {
+  private static class Relationships {
 
     private List<String> projects;
     private List<String> assays;
@@ -84,7 +86,7 @@ public class ISADataFile extends AbstractISAObject {
     }
   }
 
-  public class RelationshipsSerializer extends StdSerializer<Relationships> {
+  public static class RelationshipsSerializer extends StdSerializer<Relationships> {
 
     public RelationshipsSerializer(Class<Relationships> t) {
       super(t);
@@ -106,7 +108,7 @@ public class ISADataFile extends AbstractISAObject {
     }
   }
 
-  private void generateListJSON(JsonGenerator generator, String name, List<String> items,
+  private static void generateListJSON(JsonGenerator generator, String name, List<String> items,
       String type)
       throws IOException {
     generator.writeObjectFieldStart(name);
@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -21,6 +21,9 @@ import java.util.Objects;
  */
 public class ISASample extends AbstractISAObject {
 
+  private static final ObjectWriter WRITER = createWriter(new SimpleModule()
+      .addSerializer(Relationships.class, new RelationshipsSerializer()));
+
   private Attributes attributes;
   private Relationships relationships;
   private final String ISA_TYPE = "samples";
@@ -53,10 +56,9 @@ public class ISASample extends AbstractISAObject {
     return id;
   }
 
-  public String toJson() throws JsonProcessingException {
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Relationships.class, new RelationshipsSerializer());
-    return super.toJson(module);
+  @Override
+  protected ObjectWriter writer() {
+    return WRITER;
   }
 
   public String getType() {
@@ -75,7 +77,7 @@ public class ISASample extends AbstractISAObject {
     return new HashMap<>(attributes.getAttribute_map());
   }
 
-  private class Relationships {
+  private static class Relationships {
 
     private String sampleTypeId;
     private List<String> projects;
@@ -112,7 +114,7 @@ public class ISASample extends AbstractISAObject {
     }
   }
 
-  public class RelationshipsSerializer extends StdSerializer<Relationships> {
+  public static class RelationshipsSerializer extends StdSerializer<Relationships> {
 
     public RelationshipsSerializer(Class<Relationships> t) {
       super(t);
@@ -141,7 +143,7 @@ public class ISASample extends AbstractISAObject {
     }
   }
 
-  private void generateListJSON(JsonGenerator generator, String name, List<String> items, String type)
+  private static void generateListJSON(JsonGenerator generator, String name, List<String> items, String type)
       throws IOException {
     generator.writeObjectFieldStart(name);
     generator.writeArrayFieldStart("data");
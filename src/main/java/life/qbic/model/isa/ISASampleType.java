@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -20,6 +20,9 @@ import java.util.List;
  */
 public class ISASampleType extends AbstractISAObject {
 
+  private static final ObjectWriter WRITER = createWriter(new SimpleModule()
+      .addSerializer(Relationships.class, new RelationshipsSerializer()));
+
   private Attributes attributes;
   private Relationships relationships;
   private final String ISA_TYPE = "sample_types";
@@ -39,10 +42,9 @@ public class ISASampleType extends AbstractISAObject {
     return this;
   }
 
-  public String toJson() throws JsonProcessingException {
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Relationships.class, new RelationshipsSerializer());
-    return super.toJson(module);
+  @Override
+  protected ObjectWriter writer() {
+    return WRITER;
   }
 
   public String getType() {
@@ -57,7 +59,7 @@ public class ISASampleType extends AbstractISAObject {
     return attributes;
   }
 
-  private class Relationships {
+  private static class Relationships {
 
     private List<String> projects;
     private List<String> assays;
@@ -76,7 +78,7 @@ public class ISASampleType extends AbstractISAObject {
     }
   }
 
-  public class RelationshipsSerializer extends StdSerializer<Relationships> {
+  public static class RelationshipsSerializer extends StdSerializer<Relationships> {
 
     public RelationshipsSerializer(Class<Relationships> t) {
       super(t);
@@ -98,7 +100,7 @@ public class ISASampleType extends AbstractISAObject {
     }
   }
 
-  private void generateListJSON(JsonGenerator generator, String name, List<String> items,
+  private static void generateListJSON(JsonGenerator generator, String name, List<String> items,
       String type)
       throws IOException {
     generator.writeObjectFieldStart(name);
@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -19,6 +19,9 @@ import java.util.List;
  */
 public class ISAStudy extends AbstractISAObject {
 
+  private static final ObjectWriter WRITER = createWriter(new SimpleModule()
+      .addSerializer(Relationships.class, new RelationshipsSerializer()));
+
   private Attributes attributes;
   private Relationships relationships;
   private final String ISA_TYPE = "studies";
@@ -47,10 +50,9 @@ public class ISAStudy extends AbstractISAObject {
     this.relationships.setCreatorIDs(creators);
   }
 
-  public String toJson() throws JsonProcessingException {
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(Relationships.class, new RelationshipsSerializer());
-    return super.toJson(module);
+  @Override
+  protected ObjectWriter writer() {
+    return WRITER;
   }
 
   public String getType() {
@@ -65,7 +67,7 @@ public class ISAStudy extends AbstractISAObject {
     return attributes;
   }
 
-  private class Relationships {
+  private static class Relationships {
 
     private String investigationId;
     private List<Integer> creators = new ArrayList<>();
@@ -87,7 +89,7 @@ public class ISAStudy extends AbstractISAObject {
     }
   }
 
-  public class RelationshipsSerializer extends StdSerializer<Relationships> {
+  public static class RelationshipsSerializer extends StdSerializer<Relationships> {
 
     public RelationshipsSerializer(Class<Relationships> t) {
       super(t);
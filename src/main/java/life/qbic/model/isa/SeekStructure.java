@@ -1,7 +1,7 @@
 package life.qbic.model.isa;
 
 import ch.ethz.sis.openbis.generic.dssapi.v3.dto.datasetfile.DataSetFile;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -10,6 +10,7 @@ import org.apache.commons.lang3.tuple.Pair;
  * Stores newly created ISA objects for SEEK, as well as their respective openBIS reference. It is
  * assumed that these references are Sample and Experiment Identifiers. PermIds of datasets are taken
  * from stored DataSetFiles
+ * Samples and assets are kept in the order they were added.
  */
 public class SeekStructure {
 
@@ -19,8 +20,8 @@ public class SeekStructure {
 
   public SeekStructure(ISAAssay assay, String openBISReference) {
     this.assayAndOpenBISReference = new ImmutablePair<>(assay, openBISReference);
-    this.samplesWithOpenBISReference = new HashMap<>();
-    this.isaToOpenBISFile = new HashMap<>();
+    this.samplesWithOpenBISReference = new LinkedHashMap<>();
+    this.isaToOpenBISFile = new LinkedHashMap<>();
   }
 
   public void addSample(ISASample sample, String openBISReference) {
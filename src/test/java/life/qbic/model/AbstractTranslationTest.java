@@ -0,0 +1,48 @@
+package life.qbic.model;
+
+import java.util.Collections;
+import java.util.Set;
+import life.qbic.App;
+import life.qbic.model.isa.SeekStructure;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Base of tests translating synthetic experiments. Provides the config property the translator
+ * needs while the tests of a class run, and restores the previous value afterwards, as the config is
+ * shared by all tests.
+ */
+abstract class AbstractTranslationTest {
+
+  static final String SAMPLE_TITLE_PROPERTY = "seek_openbis_sample_title";
+  private static String previousSampleTitle;
+
+  @BeforeAll
+  static void setSampleTitle() {
+    previousSampleTitle = App.configProperties.put(SAMPLE_TITLE_PROPERTY, "openBIS Name");
+  }
+
+  @AfterAll
+  static void restoreSampleTitle() {
+    if (previousSampleTitle == null) {
+      App.configProperties.remove(SAMPLE_TITLE_PROPERTY);
+    } else {
+      App.configProperties.put(SAMPLE_TITLE_PROPERTY, previousSampleTitle);
+    }
+  }
+
+  static OpenbisSeekTranslator createTranslator(boolean parallel) throws Exception {
+    OpenbisSeekTranslator translator = new OpenbisSeekTranslator("https://openbis.test/", "1");
+    translator.setParallelTranslation(parallel);
+    return translator;
+  }
+
+  /**
+   * Translates a synthetic experiment, its sample type is mapped to SEEK sample type 1.
+   */
+  static SeekStructure translate(OpenbisSeekTranslator translator,
+      OpenbisExperimentWithDescendants experiment, Set<String> blacklist) throws Exception {
+    return translator.translate(experiment,
+        Collections.singletonMap(SyntheticExperiments.SAMPLE_TYPE, "1"), blacklist, true);
+  }
+}
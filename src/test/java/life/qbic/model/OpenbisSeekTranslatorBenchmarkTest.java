@@ -0,0 +1,100 @@
+package life.qbic.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.ethz.sis.openbis.generic.dssapi.v3.dto.datasetfile.DataSetFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import life.qbic.model.isa.SeekStructure;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the translation of a large synthetic experiment to SEEK objects and compares the way
+ * assets get the type of their dataset to the search it replaced. Times are printed, not asserted,
+ * as they depend on the machine. Excluded from the default test run, run with
+ * mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class OpenbisSeekTranslatorBenchmarkTest extends AbstractTranslationTest {
+
+  private static final int DATASETS = 2000;
+  private static final int FILES_PER_DATASET = 100;
+  private static final int RUNS = 3;
+
+  private static long translate(OpenbisSeekTranslator translator,
+      OpenbisExperimentWithDescendants experiment) throws Exception {
+    long start = System.nanoTime();
+    SeekStructure structure = translate(translator, experiment, Collections.emptySet());
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    assertEquals(DATASETS, structure.getSamplesWithOpenBISReference().size());
+    assertEquals(DATASETS * FILES_PER_DATASET, structure.getISAFileToDatasetFiles().size());
+    return millis;
+  }
+
+  /**
+   * The lookup used before: searches all datasets of the experiment for the dataset of a file.
+   */
+  private static String searchDatasetTypeOfFile(DataSetFile file,
+      List<DatasetWithProperties> dataSets) {
+    String permId = file.getDataSetPermId().getPermId();
+    for (DatasetWithProperties dataset : dataSets) {
+      if (dataset.getCode().equals(permId)) {
+        return dataset.getType().getCode();
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Resolves the dataset type of every file of the experiment, in the order of its datasets.
+   * @param typeOfFile provides the lookup of file types for the dataset the files were listed for
+   */
+  private static List<String> datasetTypesOfFiles(OpenbisExperimentWithDescendants experiment,
+      Function<DatasetWithProperties, Function<DataSetFile, String>> typeOfFile) {
+    List<String> types = new ArrayList<>();
+    for (DatasetWithProperties dataset : experiment.getDatasets()) {
+      Function<DataSetFile, String> lookup = typeOfFile.apply(dataset);
+      for (DataSetFile file : experiment.getFilesForDataset(dataset.getCode())) {
+        types.add(lookup.apply(file));
+      }
+    }
+    return types;
+  }
+
+  @Test
+  void translatesLargeExperiment() throws Exception {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+    OpenbisSeekTranslator translator = createTranslator(false);
+    for (int run = 1; run <= RUNS; run++) {
+      System.out.printf("Translated %s datasets with %s files (run %s) in %s ms%n", DATASETS,
+          DATASETS * FILES_PER_DATASET, run, translate(translator, experiment));
+    }
+  }
+
+  @Test
+  void comparesDatasetTypeLookups() {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+    for (int run = 1; run <= RUNS; run++) {
+      long start = System.nanoTime();
+      List<String> searched = datasetTypesOfFiles(experiment,
+          dataset -> file -> searchDatasetTypeOfFile(file, experiment.getDatasets()));
+      long searchMillis = (System.nanoTime() - start) / 1_000_000;
+
+      start = System.nanoTime();
+      List<String> iterated = datasetTypesOfFiles(experiment, dataset -> {
+        String datasetType = dataset.getType().getCode();
+        return file -> datasetType;
+      });
+      long iterationMillis = (System.nanoTime() - start) / 1_000_000;
+
+      assertEquals(searched, iterated);
+      System.out.printf("Dataset types of %s files (run %s): search of all datasets %s ms, type "
+          + "of the iterated dataset %s ms%n", searched.size(), run, searchMillis, iterationMillis);
+    }
+  }
+}
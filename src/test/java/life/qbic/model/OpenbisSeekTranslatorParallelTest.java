@@ -0,0 +1,80 @@
+package life.qbic.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.ethz.sis.openbis.generic.dssapi.v3.dto.datasetfile.DataSetFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import life.qbic.model.isa.GenericSeekAsset;
+import life.qbic.model.isa.ISASample;
+import life.qbic.model.isa.SeekStructure;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Translates the same synthetic experiment sequentially and in parallel. Both results have to
+ * contain the same samples and assets, in the same order.
+ */
+class OpenbisSeekTranslatorParallelTest extends AbstractTranslationTest {
+
+  private static final int DATASETS = 200;
+  private static final int FILES_PER_DATASET = 100;
+
+  /**
+   * @return the json of each sample, followed by its openBIS reference, in the order of the result
+   */
+  private static List<String> samples(SeekStructure structure) throws Exception {
+    List<String> result = new ArrayList<>();
+    for (Map.Entry<ISASample, String> sample :
+        structure.getSamplesWithOpenBISReference().entrySet()) {
+      result.add(sample.getKey().toJson());
+      result.add(sample.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * @return the json of each asset, followed by the path of its openBIS file, in the order of the
+   * result
+   */
+  private static List<String> assets(SeekStructure structure) throws Exception {
+    List<String> result = new ArrayList<>();
+    for (Map.Entry<GenericSeekAsset, DataSetFile> asset :
+        structure.getISAFileToDatasetFiles().entrySet()) {
+      result.add(asset.getKey().toJson());
+      result.add(asset.getValue().getDataSetPermId() + "/" + asset.getValue().getPath());
+    }
+    return result;
+  }
+
+  private static void assertSameTranslation(OpenbisExperimentWithDescendants experiment,
+      Set<String> blacklist) throws Exception {
+    SeekStructure sequential = translate(createTranslator(false), experiment, blacklist);
+    SeekStructure parallel = translate(createTranslator(true), experiment, blacklist);
+
+    assertEquals(sequential.getAssayWithOpenBISReference().getLeft().toJson(),
+        parallel.getAssayWithOpenBISReference().getLeft().toJson());
+    assertEquals(samples(sequential), samples(parallel));
+    assertEquals(assets(sequential), assets(parallel));
+  }
+
+  @Test
+  void parallelTranslationEqualsSequentialTranslation() throws Exception {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+
+    assertSameTranslation(experiment, Collections.emptySet());
+  }
+
+  @Test
+  void parallelTranslationSkipsTheSameDatasets() throws Exception {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+    Set<String> blacklist = Set.of(experiment.getDatasets().get(0).getCode(),
+        experiment.getDatasets().get(DATASETS / 2).getCode());
+
+    assertSameTranslation(experiment, blacklist);
+  }
+}
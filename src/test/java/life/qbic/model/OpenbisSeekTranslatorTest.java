@@ -0,0 +1,74 @@
+package life.qbic.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import ch.ethz.sis.openbis.generic.dssapi.v3.dto.datasetfile.DataSetFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import life.qbic.model.isa.GenericSeekAsset;
+import life.qbic.model.isa.SeekStructure;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Translates a small synthetic experiment, whose datasets have different types, and checks the
+ * created assets.
+ */
+class OpenbisSeekTranslatorTest extends AbstractTranslationTest {
+
+  private static final int DATASETS = 4;
+  private static final int FILES_PER_DATASET = 3;
+
+  @Test
+  void createsOneAssetOfTheDatasetTypePerFile() throws Exception {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+
+    SeekStructure structure = translate(createTranslator(false), experiment,
+        Collections.emptySet());
+
+    assertEquals(DATASETS, structure.getSamplesWithOpenBISReference().size());
+    List<String> expected = new ArrayList<>();
+    for (DatasetWithProperties dataset : experiment.getDatasets()) {
+      String assetType = dataset.getType().getCode().equals("SOURCE_CODE") ? "documents"
+          : "data_files";
+      for (DataSetFile file : experiment.getFilesForDataset(dataset.getCode())) {
+        if (!file.isDirectory()) {
+          expected.add(dataset.getCode() + "/" + file.getPath() + " " + assetType);
+        }
+      }
+    }
+    assertEquals(expected, assetsWithTypes(structure));
+  }
+
+  @Test
+  void skipsBlacklistedDatasets() throws Exception {
+    OpenbisExperimentWithDescendants experiment = SyntheticExperiments.create(DATASETS,
+        FILES_PER_DATASET);
+    String blacklisted = experiment.getDatasets().get(1).getCode();
+
+    SeekStructure structure = translate(createTranslator(false), experiment, Set.of(blacklisted));
+
+    assertEquals((DATASETS - 1) * FILES_PER_DATASET, structure.getISAFileToDatasetFiles().size());
+    for (DataSetFile file : structure.getISAFileToDatasetFiles().values()) {
+      assertNotEquals(blacklisted, file.getDataSetPermId().getPermId());
+    }
+  }
+
+  /**
+   * @return dataset code, file path and SEEK type of each asset, in the order of the result
+   */
+  private static List<String> assetsWithTypes(SeekStructure structure) {
+    List<String> result = new ArrayList<>();
+    for (Map.Entry<GenericSeekAsset, DataSetFile> asset :
+        structure.getISAFileToDatasetFiles().entrySet()) {
+      DataSetFile file = asset.getValue();
+      result.add(file.getDataSetPermId().getPermId() + "/" + file.getPath() + " "
+          + asset.getKey().getType());
+    }
+    return result;
+  }
+}
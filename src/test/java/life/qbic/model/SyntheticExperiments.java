@@ -0,0 +1,156 @@
+package life.qbic.model;
+
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.DataSet;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.DataSetType;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.fetchoptions.DataSetFetchOptions;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.dataset.id.DataSetPermId;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.Experiment;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.ExperimentType;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.fetchoptions.ExperimentFetchOptions;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.id.ExperimentIdentifier;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.experiment.id.ExperimentPermId;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.property.DataType;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.property.PropertyAssignment;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.property.PropertyType;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.property.fetchoptions.PropertyAssignmentFetchOptions;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.Sample;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.SampleType;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.fetchoptions.SampleFetchOptions;
+import ch.ethz.sis.openbis.generic.asapi.v3.dto.sample.id.SampleIdentifier;
+import ch.ethz.sis.openbis.generic.dssapi.v3.dto.datasetfile.DataSetFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds openBIS experiments with samples, datasets and files in memory, with the types and
+ * properties the translator reads, so translation can be tested without an openBIS instance.
+ */
+class SyntheticExperiments {
+
+  static final String EXPERIMENT_TYPE = "MASS_SPECTROMETRY_EXPERIMENT";
+  static final String SAMPLE_TYPE = "Q_TEST_SAMPLE";
+  // mapped to data_files and documents in dataset_type_to_asset_type.properties
+  static final String[] DATASET_TYPES = {"UNKNOWN", "SOURCE_CODE"};
+  private static final String[] EXTENSIONS = {"fastq.gz", "tsv", "txt", "raw", "mzML"};
+
+  private SyntheticExperiments() {
+  }
+
+  /**
+   * Creates an experiment with one sample per dataset. Each dataset contains a folder and the
+   * provided number of files in it. The datasets alternate between the dataset types.
+   */
+  static OpenbisExperimentWithDescendants create(int datasets, int filesPerDataset) {
+    Experiment experiment = createExperiment();
+    SampleType sampleType = createSampleType();
+    List<Sample> samples = new ArrayList<>();
+    List<DatasetWithProperties> datasetsWithProperties = new ArrayList<>();
+    Map<String, List<DataSetFile>> datasetCodeToFiles = new HashMap<>();
+    for (int d = 0; d < datasets; d++) {
+      String code = String.format("20240101000000000-%05d", d);
+      samples.add(createSample(sampleType, d));
+      datasetsWithProperties.add(new DatasetWithProperties(createDataset(code,
+          DATASET_TYPES[d % DATASET_TYPES.length])));
+      datasetCodeToFiles.put(code, createFiles(code, filesPerDataset));
+    }
+    return new OpenbisExperimentWithDescendants(experiment, samples, datasetsWithProperties,
+        datasetCodeToFiles);
+  }
+
+  private static Experiment createExperiment() {
+    ExperimentFetchOptions fetchOptions = new ExperimentFetchOptions();
+    fetchOptions.withType();
+    ExperimentType type = new ExperimentType();
+    type.setCode(EXPERIMENT_TYPE);
+    Experiment experiment = new Experiment();
+    experiment.setFetchOptions(fetchOptions);
+    experiment.setCode("QTEST001E1");
+    experiment.setPermId(new ExperimentPermId("20240101000000000-1"));
+    experiment.setIdentifier(new ExperimentIdentifier("/TEST_SPACE/QTEST/QTEST001E1"));
+    experiment.setType(type);
+    return experiment;
+  }
+
+  private static SampleType createSampleType() {
+    SampleFetchOptions fetchOptions = new SampleFetchOptions();
+    PropertyAssignmentFetchOptions assignmentFetchOptions = fetchOptions.withType()
+        .withPropertyAssignments();
+    assignmentFetchOptions.withPropertyType();
+    SampleType type = new SampleType();
+    type.setFetchOptions(fetchOptions.withType());
+    type.setCode(SAMPLE_TYPE);
+    List<PropertyAssignment> assignments = new ArrayList<>();
+    assignments.add(createAssignment(assignmentFetchOptions, "Q_SECONDARY_NAME", "Name",
+        DataType.VARCHAR));
+    assignments.add(createAssignment(assignmentFetchOptions, "Q_VOLUME", "Volume",
+        DataType.REAL));
+    assignments.add(createAssignment(assignmentFetchOptions, "Q_PARENT", "Parent",
+        DataType.SAMPLE));
+    type.setPropertyAssignments(assignments);
+    return type;
+  }
+
+  private static PropertyAssignment createAssignment(PropertyAssignmentFetchOptions fetchOptions,
+      String code, String label, DataType dataType) {
+    PropertyType propertyType = new PropertyType();
+    propertyType.setCode(code);
+    propertyType.setLabel(label);
+    propertyType.setDataType(dataType);
+    PropertyAssignment assignment = new PropertyAssignment();
+    assignment.setFetchOptions(fetchOptions);
+    assignment.setPropertyType(propertyType);
+    return assignment;
+  }
+
+  private static Sample createSample(SampleType type, int number) {
+    SampleFetchOptions fetchOptions = new SampleFetchOptions();
+    fetchOptions.withType();
+    fetchOptions.withProperties();
+    Map<String, String> properties = new HashMap<>();
+    properties.put("Q_SECONDARY_NAME", "sample " + number);
+    properties.put("Q_VOLUME", Double.toString(number * 0.5));
+    properties.put("Q_PARENT", String.format("20240101000000000-S%05d", number / 10));
+    Sample sample = new Sample();
+    sample.setFetchOptions(fetchOptions);
+    sample.setCode(String.format("QTEST%05dA", number));
+    sample.setIdentifier(new SampleIdentifier(String.format("/TEST_SPACE/QTEST%05dA", number)));
+    sample.setType(type);
+    sample.setProperties(properties);
+    return sample;
+  }
+
+  private static DataSet createDataset(String code, String typeCode) {
+    DataSetFetchOptions fetchOptions = new DataSetFetchOptions();
+    fetchOptions.withType();
+    DataSetType type = new DataSetType();
+    type.setCode(typeCode);
+    DataSet dataset = new DataSet();
+    dataset.setFetchOptions(fetchOptions);
+    dataset.setCode(code);
+    dataset.setPermId(new DataSetPermId(code));
+    dataset.setType(type);
+    return dataset;
+  }
+
+  private static List<DataSetFile> createFiles(String datasetCode, int files) {
+    List<DataSetFile> result = new ArrayList<>();
+    result.add(createFile(datasetCode, "original", true, 0));
+    for (int f = 0; f < files; f++) {
+      String path = String.format("original/file_%05d.%s", f, EXTENSIONS[f % EXTENSIONS.length]);
+      result.add(createFile(datasetCode, path, false, 1024L * (f + 1)));
+    }
+    return result;
+  }
+
+  private static DataSetFile createFile(String datasetCode, String path, boolean directory,
+      long length) {
+    DataSetFile file = new DataSetFile();
+    file.setDataSetPermId(new DataSetPermId(datasetCode));
+    file.setPath(path);
+    file.setDirectory(directory);
+    file.setFileLength(length);
+    return file;
+  }
+}
@@ -0,0 +1,163 @@
+package life.qbic.model.download;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Streams through a pipe with a small buffer, checking its contents, backpressure, failures and
+ * closing of either side.
+ */
+class BoundedPipeTest {
+
+  private static final int CAPACITY = 1000;
+  // size of the blocks the producer reads, see InputStream.transferTo
+  private static final int TRANSFER_BLOCK_SIZE = 8192;
+
+  /**
+   * Source of a fixed number of bytes that records how many were read and when it was closed.
+   * Optionally fails after a number of bytes.
+   */
+  private static class RecordingSource extends InputStream {
+
+    private final long size;
+    private final long failAfter;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private RecordingSource(long size, long failAfter) {
+      this.size = size;
+      this.failAfter = failAfter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      long position = bytesRead.get();
+      if (position >= failAfter) {
+        throw new IOException("source failed at " + position);
+      }
+      if (position >= size) {
+        return -1;
+      }
+      int length = (int) Math.min(len, Math.min(size, failAfter) - position);
+      bytesRead.addAndGet(length);
+      return length;
+    }
+
+    @Override
+    public void close() {
+      closed.countDown();
+    }
+  }
+
+  private static byte[] content(int size) {
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    return content;
+  }
+
+  private static void awaitAvailable(InputStream pipe, int bytes)
+      throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (pipe.available() < bytes && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void transfersContentLargerThanTheBuffer() throws IOException {
+    byte[] content = content(CAPACITY * 25 + 7);
+
+    try (InputStream pipe = BoundedPipe.start(() -> new ByteArrayInputStream(content), CAPACITY,
+        "test-producer")) {
+      assertArrayEquals(content, pipe.readAllBytes());
+      assertEquals(-1, pipe.read());
+      assertEquals(-1, pipe.read(new byte[10], 0, 10));
+    }
+  }
+
+  @Test
+  void endsEmptySource() throws IOException {
+    try (InputStream pipe = BoundedPipe.start(() -> new ByteArrayInputStream(new byte[0]),
+        CAPACITY, "test-producer")) {
+      assertEquals(-1, pipe.read());
+    }
+  }
+
+  @Test
+  void blocksProducerWhileBufferIsFull() throws Exception {
+    int size = CAPACITY * 100;
+    RecordingSource source = new RecordingSource(size, Long.MAX_VALUE);
+
+    try (InputStream pipe = BoundedPipe.start(() -> source, CAPACITY, "test-producer")) {
+      awaitAvailable(pipe, CAPACITY);
+      Thread.sleep(200);
+
+      assertEquals(CAPACITY, pipe.available());
+      // besides the full buffer, the producer holds at most one block it could not write yet
+      assertTrue(source.bytesRead.get() <= CAPACITY + TRANSFER_BLOCK_SIZE);
+      assertEquals(1, source.closed.getCount());
+
+      assertEquals(size, pipe.readAllBytes().length);
+      assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void passesProducerFailureToReader() throws IOException {
+    RecordingSource source = new RecordingSource(CAPACITY * 10, CAPACITY * 3);
+
+    try (InputStream pipe = BoundedPipe.start(() -> source, CAPACITY, "test-producer")) {
+      IOException failure = assertThrows(IOException.class, pipe::readAllBytes);
+      assertTrue(failure.getCause() instanceof IOException);
+      assertTrue(failure.getCause().getMessage().startsWith("source failed"));
+    }
+  }
+
+  @Test
+  void passesFailureToOpenSourceToReader() throws IOException {
+    RuntimeException cause = new RuntimeException("source could not be opened");
+
+    try (InputStream pipe = BoundedPipe.start(() -> {
+      throw cause;
+    }, CAPACITY, "test-producer")) {
+      IOException failure = assertThrows(IOException.class, pipe::read);
+      assertSame(cause, failure.getCause());
+    }
+  }
+
+  @Test
+  void closingReaderStopsBlockedProducer() throws Exception {
+    RecordingSource source = new RecordingSource(Long.MAX_VALUE, Long.MAX_VALUE);
+    InputStream pipe = BoundedPipe.start(() -> source, CAPACITY, "test-producer");
+    awaitAvailable(pipe, CAPACITY);
+
+    pipe.close();
+
+    assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    assertThrows(IOException.class, pipe::read);
+  }
+
+  @Test
+  void rejectsEmptyBuffer() {
+    assertThrows(IllegalArgumentException.class,
+        () -> BoundedPipe.start(() -> new ByteArrayInputStream(new byte[1]), 0, "test-producer"));
+  }
+}
@@ -0,0 +1,171 @@
+package life.qbic.model.download;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Uploads to a stub SEEK endpoint that stores chunks like a server accepting partial uploads.
+ */
+class ChunkedUploaderTest {
+
+  private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+  private static final int CHUNK_SIZE = 1000;
+
+  private HttpServer server;
+  private SEEKHttpTransport transport;
+  private ByteArrayOutputStream stored;
+  private String blobEndpoint;
+  private String assetEndpoint;
+  // answers the server gives instead of the correct ones, by chunk number
+  private Integer wrongStatusAtChunk;
+  private Integer wrongRangeAtChunk;
+  private long reportedSizeDifference;
+  private int chunksReceived;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    stored = new ByteArrayOutputStream();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/data_files/1/content_blobs/1", this::handleChunk);
+    server.createContext("/data_files/1", this::handleAsset);
+    server.start();
+    String base = "http://localhost:" + server.getAddress().getPort();
+    blobEndpoint = base + "/data_files/1/content_blobs/1";
+    assetEndpoint = base + "/data_files/1";
+    transport = new SEEKHttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(5), 2);
+  }
+
+  @AfterEach
+  void stopServer() {
+    transport.shutdown();
+    server.stop(0);
+  }
+
+  private void handleChunk(HttpExchange exchange) throws IOException {
+    Matcher range = CONTENT_RANGE.matcher(exchange.getRequestHeaders().getFirst("Content-Range"));
+    if (!exchange.getRequestMethod().equals("PUT") || !range.matches()
+        || Long.parseLong(range.group(1)) != stored.size()) {
+      respond(exchange, 400, "");
+      return;
+    }
+    stored.write(exchange.getRequestBody().readAllBytes());
+    int chunk = chunksReceived++;
+    long end = Long.parseLong(range.group(2));
+    boolean complete = end + 1 == Long.parseLong(range.group(3));
+    if (wrongStatusAtChunk != null && wrongStatusAtChunk == chunk) {
+      respond(exchange, complete ? 308 : 200, "");
+      return;
+    }
+    if (complete) {
+      respond(exchange, 200, "");
+      return;
+    }
+    long acknowledged = wrongRangeAtChunk != null && wrongRangeAtChunk == chunk ? end - 1 : end;
+    exchange.getResponseHeaders().add("Range", "bytes=0-" + acknowledged);
+    respond(exchange, 308, "");
+  }
+
+  private void handleAsset(HttpExchange exchange) throws IOException {
+    respond(exchange, 200, "{\"data\":{\"id\":\"1\",\"attributes\":{\"content_blobs\":[{\"link\":\""
+        + blobEndpoint + "\",\"size\":" + (stored.size() + reportedSizeDifference) + "}]}}}");
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static byte[] content(int size) {
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    return content;
+  }
+
+  private void upload(byte[] content, long offset, List<Long> checkpoints) throws Exception {
+    new ChunkedUploader(transport, "user:pw".getBytes(StandardCharsets.UTF_8)).upload(
+        blobEndpoint, assetEndpoint, content.length, offset, CHUNK_SIZE,
+        () -> new ByteArrayInputStream(content), checkpoints::add);
+  }
+
+  @Test
+  void uploadsAllChunksAndReportsCheckpoints() throws Exception {
+    byte[] content = content(2500);
+    List<Long> checkpoints = new ArrayList<>();
+
+    upload(content, 0, checkpoints);
+
+    assertArrayEquals(content, stored.toByteArray());
+    assertEquals(List.of(1000L, 2000L, 2500L), checkpoints);
+  }
+
+  @Test
+  void resumesAtOffset() throws Exception {
+    byte[] content = content(2500);
+    stored.write(content, 0, 1000);
+    List<Long> checkpoints = new ArrayList<>();
+
+    upload(content, 1000, checkpoints);
+
+    assertArrayEquals(content, stored.toByteArray());
+    assertEquals(List.of(2000L, 2500L), checkpoints);
+  }
+
+  @Test
+  void completedIntermediateChunkFails() {
+    wrongStatusAtChunk = 0;
+    List<Long> checkpoints = new ArrayList<>();
+
+    assertThrows(IOException.class, () -> upload(content(2500), 0, checkpoints));
+    assertEquals(List.of(), checkpoints);
+  }
+
+  @Test
+  void incompleteLastChunkFails() {
+    wrongStatusAtChunk = 2;
+    List<Long> checkpoints = new ArrayList<>();
+
+    assertThrows(IOException.class, () -> upload(content(2500), 0, checkpoints));
+    assertEquals(List.of(1000L, 2000L), checkpoints);
+  }
+
+  @Test
+  void mismatchingRangeFails() {
+    wrongRangeAtChunk = 1;
+    List<Long> checkpoints = new ArrayList<>();
+
+    assertThrows(IOException.class, () -> upload(content(2500), 0, checkpoints));
+    assertEquals(List.of(1000L), checkpoints);
+  }
+
+  @Test
+  void wrongStoredSizeFailsAndResetsCheckpoint() {
+    reportedSizeDifference = -1;
+    List<Long> checkpoints = new ArrayList<>();
+
+    assertThrows(IOException.class, () -> upload(content(2500), 0, checkpoints));
+    assertEquals(Arrays.asList(1000L, 2000L, 2500L, 0L), checkpoints);
+  }
+}
@@ -0,0 +1,98 @@
+package life.qbic.model.download;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads canned SEEK responses, shaped like those of search, list and single assay requests.
+ */
+class SeekResponseReaderTest {
+
+  private static final String SEARCH_RESPONSE = "{"
+      + "\"jsonapi\":{\"version\":\"1.0\"},"
+      + "\"data\":["
+      + "{\"id\":\"12\",\"type\":\"assays\",\"attributes\":{\"title\":\"QTEST001E1 (20240101-1)\","
+      + "\"description\":\"{\\\"data\\\":[1,2]}\",\"tags\":[\"a\",\"b\"],"
+      + "\"creators\":[{\"id\":\"3\",\"title\":\"Creator\"}]},"
+      + "\"links\":{\"self\":\"/assays/12\"}},"
+      + "{\"type\":\"assays\",\"attributes\":{\"other\":{\"title\":\"nested\"}},\"id\":\"13\"},"
+      + "{\"id\":\"14\"}"
+      + "],"
+      + "\"meta\":{\"base_url\":\"https://seek.test\"}}";
+
+  private static final String ASSAY_RESPONSE = "{"
+      + "\"data\":{\"id\":\"12\",\"type\":\"assays\","
+      + "\"attributes\":{\"title\":\"Assay\",\"policy\":{\"access\":\"view\"}},"
+      + "\"relationships\":{"
+      + "\"samples\":{\"data\":[{\"id\":\"5\",\"type\":\"samples\"},"
+      + "{\"id\":\"6\",\"type\":\"samples\"}]},"
+      + "\"study\":{\"data\":{\"id\":\"2\",\"type\":\"studies\"}},"
+      + "\"data_files\":{\"data\":[]},"
+      + "\"projects\":{\"data\":[{\"id\":\"1\",\"type\":\"projects\"}],"
+      + "\"meta\":{\"count\":1}},"
+      + "\"documents\":null"
+      + "}},"
+      + "\"included\":[{\"id\":\"99\"}]}";
+
+  private static InputStream stream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void readsIDsAndTitlesOfSearchHits() throws IOException {
+    List<Pair<String, String>> hits = SeekResponseReader.readIDsAndTitles(
+        stream(SEARCH_RESPONSE));
+
+    assertEquals(List.of(new ImmutablePair<>("12", "QTEST001E1 (20240101-1)"),
+        new ImmutablePair<>("13", null), new ImmutablePair<>("14", null)), hits);
+  }
+
+  @Test
+  void skipsObjectsAndArraysInPlaceOfIDOrTitle() throws IOException {
+    String json = "{\"data\":["
+        + "{\"id\":{\"value\":\"1\"},\"attributes\":{\"title\":[\"a\",{\"b\":\"c\"}]}},"
+        + "{\"id\":[\"2\"],\"attributes\":{\"title\":{\"text\":\"t\"},\"x\":1}},"
+        + "{\"id\":\"3\",\"attributes\":{\"title\":\"Third\"}}"
+        + "],\"meta\":{}}";
+
+    List<Pair<String, String>> hits = SeekResponseReader.readIDsAndTitles(stream(json));
+
+    assertEquals(List.of(new ImmutablePair<>(null, null), new ImmutablePair<>(null, null),
+        new ImmutablePair<>("3", "Third")), hits);
+  }
+
+  @Test
+  void readsEmptySearchResult() throws IOException {
+    assertEquals(List.of(), SeekResponseReader.readIDsAndTitles(stream("{\"data\":[]}")));
+  }
+
+  @Test
+  void readsRelationshipIDsOfAssay() throws IOException {
+    Map<String, List<String>> related = SeekResponseReader.readRelationshipIDs(
+        stream(ASSAY_RESPONSE));
+
+    assertEquals(List.of("5", "6"), related.get("samples"));
+    assertEquals(List.of("2"), related.get("study"));
+    assertEquals(List.of(), related.get("data_files"));
+    assertEquals(List.of("1"), related.get("projects"));
+    assertEquals(List.of(), related.get("documents"));
+    assertEquals(5, related.size());
+  }
+
+  @Test
+  void rejectsResponsesThatAreNoObjects() {
+    assertThrows(IOException.class, () -> SeekResponseReader.readIDsAndTitles(stream("[]")));
+    assertThrows(IOException.class, () -> SeekResponseReader.readRelationshipIDs(
+        stream("\"error\"")));
+  }
+}